@@ -0,0 +1,56 @@
+package com.space.cli;
+
+import com.space.config.AppConfig;
+import com.space.service.ShipImportFormat;
+import com.space.service.ShipImportReport;
+import com.space.service.ShipImporter;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Imports a CSV or NDJSON file through the application context used by the web application.
+ * <p>
+ * Run with {@code mvn compile exec:java -Dexec.mainClass=com.space.cli.ImportShips -Dexec.args="file [CSV|NDJSON]"}.
+ * The format defaults to CSV for {@code .csv} files and to NDJSON otherwise; the {@code prod} profile is used
+ * unless {@code -Dspring.profiles.active} says otherwise.
+ */
+public class ImportShips {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ImportShips <file> [CSV|NDJSON]");
+            System.exit(2);
+        }
+        ShipImportFormat format = args.length > 1
+                ? ShipImportFormat.valueOf(args[1].toUpperCase(Locale.ROOT))
+                : args[0].toLowerCase(Locale.ROOT).endsWith(".csv") ? ShipImportFormat.CSV : ShipImportFormat.NDJSON;
+
+        ShipImportReport report;
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().setDefaultProfiles("prod");
+            context.register(AppConfig.class);
+            context.refresh();
+
+            try (InputStream input = Files.newInputStream(Paths.get(args[0]))) {
+                report = context.getBean(ShipImporter.class).importShips(input, format);
+            }
+        }
+
+        if (report == null) {
+            System.err.println("The CSV header must name the columns name, planet, shipType, prodDate, speed "
+                    + "and crewSize");
+            System.exit(1);
+        }
+        System.out.printf("read %d, imported %d, rejected %d%n", report.getRead(), report.getImported(),
+                report.getRejected());
+        report.getErrors().forEach(System.out::println);
+        if (report.getRejected() > report.getErrors().size()) {
+            System.out.printf("... %d more rejected rows%n", report.getRejected() - report.getErrors().size());
+        }
+    }
+}
@@ -1,12 +1,39 @@
 package com.space.config;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.repository.ShipIdGenerator;
+import com.space.repository.ShipRepository;
+import com.space.service.JpaShipQueryEngine;
+import com.space.service.RatingRecomputeJob;
+import com.space.service.ShipCache;
+import com.space.service.ShipChangeListener;
+import com.space.service.ShipImporter;
+import com.space.service.ShipQueryCache;
+import com.space.service.ShipQueryEngine;
+import com.space.service.ShipRules;
+import com.space.service.ShipService;
+import com.space.service.index.CategoryIndex;
+import com.space.service.index.RangeIndex;
+import com.space.service.index.ShipAggregates;
+import com.space.service.index.ShipColumnIndex;
+import com.space.service.index.ShipRanking;
+import com.space.service.index.TrigramIndex;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
@@ -17,6 +44,7 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.util.List;
 import java.util.Properties;
 
 import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
@@ -25,9 +53,17 @@ import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.
 @EnableTransactionManagement
 @ComponentScan("com.space.service")
 @EnableJpaRepositories(basePackages = "com.space.repository")
+@PropertySource({"classpath:datasource.properties", "classpath:application.properties"})
 public class AppConfig {
+    private final Environment env;
+
+    @Autowired
+    public AppConfig(Environment env) {
+        this.env = env;
+    }
 
     @Bean
+    @DependsOn("flyway")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource());
@@ -41,27 +77,157 @@ public class AppConfig {
     }
 
     @Profile("prod")
-    @Bean
+    @Bean(destroyMethod = "close")
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://localhost:3306/cosmoport?serverTimezone=UTC");
-        dataSource.setUsername("root");
-        dataSource.setPassword("root");
-        return dataSource;
+        HikariConfig config = poolConfig();
+        config.setPoolName("cosmoport");
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setJdbcUrl("jdbc:mysql://localhost:3306/cosmoport?serverTimezone=UTC");
+        config.setUsername("root");
+        config.setPassword("root");
+        config.setRegisterMbeans(true);
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", env.getProperty("pool.prepStmtCacheSize", "250"));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", env.getProperty("pool.prepStmtCacheSqlLimit", "2048"));
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("useCursorFetch", "true");
+        return new HikariDataSource(config);
     }
 
     @Profile("dev")
-    @Bean(name = "dataSource")
+    @Bean(name = "dataSource", destroyMethod = "close")
     public DataSource dataSourceForTests() {
-
-        return new EmbeddedDatabaseBuilder()
+        DataSource embeddedDatabase = new EmbeddedDatabaseBuilder()
                 .generateUniqueName(true)
                 .setType(H2)
                 .setScriptEncoding("UTF-8")
                 .ignoreFailedDrops(true)
-                .addScript("test.sql")
                 .build();
+
+        HikariConfig config = poolConfig();
+        config.setPoolName("cosmoport-dev");
+        config.setDataSource(embeddedDatabase);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Applies the versioned scripts from {@code db/migration} on startup. Databases created by
+     * {@code init.sql} already contain the ship table and are baselined at version 1; the embedded
+     * dev database starts empty and gets its schema from the migrations alone.
+     */
+    @Bean(initMethod = "migrate")
+    public Flyway flyway(DataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .load();
+    }
+
+    @Bean
+    public ShipQueryEngine shipQueryEngine(ShipRepository shipRepository, TrigramIndex trigramIndex,
+                                           CategoryIndex categoryIndex, RangeIndex rangeIndex) {
+        if (isMemoryEngine()) {
+            return new ShipColumnIndex(shipRepository, trigramIndex, categoryIndex, rangeIndex,
+                    env.getProperty("ship.memory.parallelThreshold", Integer.class, 100000),
+                    env.getProperty("ship.memory.orderViews", Boolean.class, true));
+        }
+        return new JpaShipQueryEngine(shipRepository);
+    }
+
+    @Bean
+    public TrigramIndex trigramIndex(ShipRepository shipRepository) {
+        return new TrigramIndex(shipRepository,
+                isMemoryEngine() && env.getProperty("ship.trigram.enabled", Boolean.class, true));
+    }
+
+    @Bean
+    public CategoryIndex categoryIndex(ShipRepository shipRepository) {
+        return new CategoryIndex(shipRepository,
+                isMemoryEngine() && env.getProperty("ship.bitmap.enabled", Boolean.class, true));
+    }
+
+    @Bean
+    public RangeIndex rangeIndex(ShipRepository shipRepository) {
+        return new RangeIndex(shipRepository,
+                isMemoryEngine() && env.getProperty("ship.rangeIndex.enabled", Boolean.class, true));
+    }
+
+    @Bean
+    public ShipAggregates shipAggregates(ShipRepository shipRepository) {
+        return new ShipAggregates(shipRepository,
+                isMemoryEngine() && env.getProperty("ship.aggregates.enabled", Boolean.class, true));
+    }
+
+    @Bean
+    public ShipRanking shipRanking(ShipRepository shipRepository) {
+        return new ShipRanking(shipRepository,
+                isMemoryEngine() && env.getProperty("ship.ranking.enabled", Boolean.class, true));
+    }
+
+    @Bean
+    public ShipCache shipCache() {
+        return new ShipCache(env.getProperty("ship.cache.maxSize", Integer.class, 10000),
+                env.getProperty("ship.cache.ttlSeconds", Long.class, 300L));
+    }
+
+    @Bean
+    public ShipQueryCache shipQueryCache() {
+        return new ShipQueryCache(env.getProperty("ship.queryCache.maxBytes", Long.class, 16L * 1024 * 1024),
+                env.getProperty("ship.queryCache.ttlSeconds", Long.class, 30L));
+    }
+
+    /**
+     * Mapper shared by the REST converters and the import, reading and writing the fields of {@code Ship}.
+     */
+    @Bean
+    public ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return objectMapper;
+    }
+
+    @Bean
+    public ShipImporter shipImporter(ShipService shipService) {
+        return new ShipImporter(shipService, objectMapper(),
+                env.getProperty("ship.import.batchSize", Integer.class, 500),
+                env.getProperty("ship.import.queueCapacity", Integer.class, 4));
+    }
+
+    @Bean
+    public RatingRecomputeJob ratingRecomputeJob(ShipRepository shipRepository, ShipRules shipRules,
+                                                 List<ShipChangeListener> changeListeners) {
+        return new RatingRecomputeJob(shipRepository, shipRules, changeListeners,
+                env.getProperty("ship.ratingJob.parallelism", Integer.class, 2),
+                env.getProperty("ship.ratingJob.rangeSize", Integer.class, 1000),
+                env.getProperty("ship.ratingJob.leaseSeconds", Long.class, 300L));
+    }
+
+    @Bean
+    public PoolMetrics poolMetrics() {
+        return new PoolMetrics();
+    }
+
+    /**
+     * The in-process indexes and totals are only used with the memory engine: they see the ships written
+     * through this JVM alone, while the sql engine must see every row in the database.
+     */
+    private boolean isMemoryEngine() {
+        return "memory".equals(env.getProperty("ship.query.engine"));
+    }
+
+    private HikariConfig poolConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setMinimumIdle(env.getProperty("pool.minimumIdle", Integer.class, 5));
+        config.setMaximumPoolSize(env.getProperty("pool.maximumPoolSize", Integer.class, 20));
+        config.setConnectionTimeout(env.getProperty("pool.connectionTimeoutMs", Long.class, 3000L));
+        config.setIdleTimeout(env.getProperty("pool.idleTimeoutMs", Long.class, 600000L));
+        config.setMaxLifetime(env.getProperty("pool.maxLifetimeMs", Long.class, 1800000L));
+        config.setLeakDetectionThreshold(env.getProperty("pool.leakDetectionThresholdMs", Long.class, 10000L));
+        config.setMetricsTrackerFactory(poolMetrics());
+        return config;
     }
 
     @Bean
@@ -80,6 +246,9 @@ public class AppConfig {
     private Properties additionalProperties() {
         Properties properties = new Properties();
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
+        properties.setProperty("hibernate.jdbc.batch_size", env.getProperty("ship.batch.size", "50"));
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty(ShipIdGenerator.ALLOCATION_SIZE, env.getProperty("ship.id.allocationSize", "500"));
 
         return properties;
     }
@@ -0,0 +1,76 @@
+package com.space.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects live gauges and acquisition timings of the connection pool.
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator acquireMaxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder usageCount = new LongAdder();
+    private final LongAdder usageMillis = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireCount.increment();
+                acquireNanos.add(elapsedAcquiredNanos);
+                acquireMaxNanos.accumulate(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageCount.increment();
+                usageMillis.add(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeoutCount.increment();
+            }
+        };
+    }
+
+    public Map<String, Number> getSnapshot() {
+        Map<String, Number> snapshot = new LinkedHashMap<>();
+        PoolStats stats = poolStats;
+        if (stats != null) {
+            snapshot.put("active", stats.getActiveConnections());
+            snapshot.put("idle", stats.getIdleConnections());
+            snapshot.put("pending", stats.getPendingThreads());
+            snapshot.put("total", stats.getTotalConnections());
+            snapshot.put("max", stats.getMaxConnections());
+            snapshot.put("min", stats.getMinConnections());
+        }
+
+        long acquired = acquireCount.sum();
+        snapshot.put("acquireCount", acquired);
+        snapshot.put("acquireWaitAvgMs", acquired == 0 ? 0.0 : toMillis(acquireNanos.sum()) / acquired);
+        snapshot.put("acquireWaitMaxMs", toMillis(acquireMaxNanos.get()));
+        snapshot.put("acquireTimeouts", timeoutCount.sum());
+
+        long used = usageCount.sum();
+        snapshot.put("usageAvgMs", used == 0 ? 0.0 : (double) usageMillis.sum() / used);
+
+        return snapshot;
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -1,7 +1,7 @@
 package com.space.config;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -21,7 +21,12 @@ import java.util.List;
 @EnableWebMvc
 @ComponentScan("com.space.controller")
 public class WebConfig implements WebMvcConfigurer {
+    private final ObjectMapper objectMapper;
 
+    @Autowired
+    public WebConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
 
     @Bean
     public ViewResolver internalResourceViewResolver() {
@@ -44,9 +49,6 @@ public class WebConfig implements WebMvcConfigurer {
 
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
-        converter.getObjectMapper().setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
-        converter.getObjectMapper().setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
-        converters.add(converter);
+        converters.add(new MappingJackson2HttpMessageConverter(objectMapper));
     }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.space.controller;
+
+import com.space.config.PoolMetrics;
+import com.space.service.RatingRecomputeJob;
+import com.space.service.ShipCache;
+import com.space.service.ShipQueryCache;
+import com.space.service.ShipService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/rest/admin")
+public class AdminController {
+    private final PoolMetrics poolMetrics;
+    private final ShipService shipService;
+    private final ShipCache shipCache;
+    private final ShipQueryCache queryCache;
+    private final RatingRecomputeJob ratingJob;
+
+    @Autowired
+    public AdminController(PoolMetrics poolMetrics, ShipService shipService, ShipCache shipCache,
+                           ShipQueryCache queryCache, RatingRecomputeJob ratingJob) {
+        this.poolMetrics = poolMetrics;
+        this.shipService = shipService;
+        this.shipCache = shipCache;
+        this.queryCache = queryCache;
+        this.ratingJob = ratingJob;
+    }
+
+    @GetMapping("/pool")
+    public ResponseEntity<Map<String, Number>> getPoolMetrics() {
+        return new ResponseEntity<>(poolMetrics.getSnapshot(), HttpStatus.OK);
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Number>> getCacheStatistics() {
+        return new ResponseEntity<>(shipCache.getStatistics(), HttpStatus.OK);
+    }
+
+    @GetMapping("/query-cache")
+    public ResponseEntity<Map<String, Number>> getQueryCacheStatistics() {
+        return new ResponseEntity<>(queryCache.getStatistics(), HttpStatus.OK);
+    }
+
+    @PostMapping("/resync")
+    public ResponseEntity<?> resync() {
+        shipService.resync();
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    /**
+     * Starts recomputing every stored rating in the background, or resumes an interrupted run.
+     */
+    @PostMapping("/rating-job")
+    public ResponseEntity<Map<String, Object>> startRatingJob() {
+        return ratingJob.start()
+                ? new ResponseEntity<>(ratingJob.getProgress(), HttpStatus.ACCEPTED)
+                : new ResponseEntity<>(ratingJob.getProgress(), HttpStatus.CONFLICT);
+    }
+
+    @GetMapping("/rating-job")
+    public ResponseEntity<Map<String, Object>> getRatingJobProgress() {
+        return new ResponseEntity<>(ratingJob.getProgress(), HttpStatus.OK);
+    }
+}
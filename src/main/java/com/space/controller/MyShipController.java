@@ -1,24 +1,53 @@
 package com.space.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.space.model.Ship;
 import com.space.model.ShipType;
+import com.space.service.ShipBatchResult;
+import com.space.service.ShipCursorPage;
+import com.space.service.ShipImportFormat;
+import com.space.service.ShipImportReport;
+import com.space.service.ShipImporter;
+import com.space.service.ShipRank;
 import com.space.service.ShipService;
-import com.space.service.TypeResultUpdateStatus;
+import com.space.service.ShipUpdateResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/rest/ships")
 public class MyShipController {
+    final static String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    final static String NDJSON = "application/x-ndjson";
+    final static String CSV = "text/csv";
+    final static String WILDCARD_ETAG = "*";
+
     private final ShipService shipService;
+    private final ShipImporter shipImporter;
+    private final ObjectWriter shipWriter;
 
     @Autowired
-    public MyShipController(ShipService shipService) {
+    public MyShipController(ShipService shipService, ShipImporter shipImporter, ObjectMapper objectMapper) {
         this.shipService = shipService;
+        this.shipImporter = shipImporter;
+        this.shipWriter = objectMapper.writerFor(Ship.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @GetMapping
@@ -36,16 +65,33 @@ public class MyShipController {
                                                @RequestParam(required = false) Double maxRating,
                                                @RequestParam(required = false) ShipOrder order,
                                                @RequestParam(required = false) Integer pageNumber,
-                                               @RequestParam(required = false) Integer pageSize) {
+                                               @RequestParam(required = false) Integer pageSize,
+                                               @RequestParam(required = false) String cursor) {
+
+        if (cursor != null) {
+            ShipCursorPage page = shipService.getShipsAfterCursor(name, planet, shipType, after, before, isUsed,
+                    minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating, order, cursor, pageSize);
+            if (page == null) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            if (page.getNextCursor() != null) {
+                headers.set(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return new ResponseEntity<>(page.getShips(), headers, HttpStatus.OK);
+        }
 
         List<Ship> shipList = shipService.getShips(name, planet, shipType, after, before, isUsed, minSpeed,
                 maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating, order, pageNumber, pageSize);
 
-        return new ResponseEntity<>(shipList, HttpStatus.OK);
+        return shipList != null
+                ? new ResponseEntity<>(shipList, HttpStatus.OK)
+                : new ResponseEntity<>(HttpStatus.BAD_REQUEST);
     }
 
     @GetMapping("/count")
-    public int getShipsCount(@RequestParam(required = false) String name,
+    public long getShipsCount(@RequestParam(required = false) String name,
                                                  @RequestParam(required = false) String planet,
                                                  @RequestParam(required = false) ShipType shipType,
                                                  @RequestParam(required = false) Long after,
@@ -58,10 +104,82 @@ public class MyShipController {
                                                  @RequestParam(required = false) Double minRating,
                                                  @RequestParam(required = false) Double maxRating) {
 
-        List<Ship> shipList = shipService.getShipsFilteredByAllField(name, planet, shipType, after, before, isUsed, minSpeed,
+        return shipService.getShipsCount(name, planet, shipType, after, before, isUsed, minSpeed,
                 maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+    }
+
+    /**
+     * Counts and average speed, rating and crew size of the ships matching the filters, in total and
+     * per ship type, planet and used/new.
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> getShipsStatistics(@RequestParam(required = false) String name,
+                                                  @RequestParam(required = false) String planet,
+                                                  @RequestParam(required = false) ShipType shipType,
+                                                  @RequestParam(required = false) Long after,
+                                                  @RequestParam(required = false) Long before,
+                                                  @RequestParam(required = false) Boolean isUsed,
+                                                  @RequestParam(required = false) Double minSpeed,
+                                                  @RequestParam(required = false) Double maxSpeed,
+                                                  @RequestParam(required = false) Integer minCrewSize,
+                                                  @RequestParam(required = false) Integer maxCrewSize,
+                                                  @RequestParam(required = false) Double minRating,
+                                                  @RequestParam(required = false) Double maxRating) {
+
+        return shipService.getStatistics(name, planet, shipType, after, before, isUsed, minSpeed,
+                maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating).toMap();
+    }
 
-        return shipList.size();
+    /**
+     * Writes every ship matching the filters as one JSON object per line, streamed from the database
+     * while the response is written.
+     */
+    @GetMapping("/export")
+    public void exportShips(@RequestParam(required = false) String name,
+                            @RequestParam(required = false) String planet,
+                            @RequestParam(required = false) ShipType shipType,
+                            @RequestParam(required = false) Long after,
+                            @RequestParam(required = false) Long before,
+                            @RequestParam(required = false) Boolean isUsed,
+                            @RequestParam(required = false) Double minSpeed,
+                            @RequestParam(required = false) Double maxSpeed,
+                            @RequestParam(required = false) Integer minCrewSize,
+                            @RequestParam(required = false) Integer maxCrewSize,
+                            @RequestParam(required = false) Double minRating,
+                            @RequestParam(required = false) Double maxRating,
+                            HttpServletResponse response) throws IOException {
+
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (JsonGenerator generator = shipWriter.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            shipService.exportShips(name, planet, shipType, after, before, isUsed, minSpeed,
+                    maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating, ship -> {
+                        try {
+                            shipWriter.writeValue(generator, ship);
+                            generator.writeRaw('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Imports the request body as CSV with a header row or as NDJSON, depending on its content type.
+     */
+    @PostMapping(value = "/import", consumes = {CSV, NDJSON})
+    public ResponseEntity<ShipImportReport> importShips(HttpServletRequest request) throws IOException {
+        ShipImportFormat format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType(CSV)) ? ShipImportFormat.CSV : ShipImportFormat.NDJSON;
+
+        ShipImportReport report = shipImporter.importShips(request.getInputStream(), format);
+        return report != null
+                ? new ResponseEntity<>(report, HttpStatus.OK)
+                : new ResponseEntity<>(HttpStatus.BAD_REQUEST);
     }
 
     @PostMapping
@@ -72,35 +190,151 @@ public class MyShipController {
                 : new ResponseEntity<>(HttpStatus.BAD_REQUEST);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<ShipBatchResult>> createShips(@RequestBody List<Ship> ships) {
+        List<ShipBatchResult> results = shipService.createAll(ships);
+        return results != null
+                ? new ResponseEntity<>(results, HttpStatus.OK)
+                : new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<Long> updateShips(@RequestBody Ship ship,
+                                            @RequestParam(required = false) List<Long> ids,
+                                            @RequestParam(required = false) String name,
+                                            @RequestParam(required = false) String planet,
+                                            @RequestParam(required = false) ShipType shipType,
+                                            @RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) Long before,
+                                            @RequestParam(required = false) Boolean isUsed,
+                                            @RequestParam(required = false) Double minSpeed,
+                                            @RequestParam(required = false) Double maxSpeed,
+                                            @RequestParam(required = false) Integer minCrewSize,
+                                            @RequestParam(required = false) Integer maxCrewSize,
+                                            @RequestParam(required = false) Double minRating,
+                                            @RequestParam(required = false) Double maxRating) {
+        Long updated = shipService.updateShips(ship, ids, name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        return updated != null
+                ? new ResponseEntity<>(updated, HttpStatus.OK)
+                : new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    @DeleteMapping("/bulk")
+    public ResponseEntity<Long> deleteShips(@RequestParam(required = false) List<Long> ids,
+                                            @RequestParam(required = false) String name,
+                                            @RequestParam(required = false) String planet,
+                                            @RequestParam(required = false) ShipType shipType,
+                                            @RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) Long before,
+                                            @RequestParam(required = false) Boolean isUsed,
+                                            @RequestParam(required = false) Double minSpeed,
+                                            @RequestParam(required = false) Double maxSpeed,
+                                            @RequestParam(required = false) Integer minCrewSize,
+                                            @RequestParam(required = false) Integer maxCrewSize,
+                                            @RequestParam(required = false) Double minRating,
+                                            @RequestParam(required = false) Double maxRating) {
+        Long deleted = shipService.deleteShips(ids, name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        return deleted != null
+                ? new ResponseEntity<>(deleted, HttpStatus.OK)
+                : new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * The {@code n} ships with the highest speed, rating or production date, best first.
+     */
+    @GetMapping("/top")
+    public ResponseEntity<List<Ship>> getTopShips(@RequestParam(required = false) ShipOrder order,
+                                                  @RequestParam(required = false) Integer n) {
+        if (order == null) {
+            order = ShipOrder.RATING;
+        }
+        if (order == ShipOrder.ID) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<Ship> ships = shipService.getTopShips(order, n);
+        return ships != null
+                ? new ResponseEntity<>(ships, HttpStatus.OK)
+                : new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Position of the ship by speed, rating or production date, counted from 1 for the highest value.
+     */
+    @GetMapping("/{id}/rank")
+    public ResponseEntity<ShipRank> getShipRank(@PathVariable String id,
+                                                @RequestParam(required = false) ShipOrder order) {
+        if (order == null) {
+            order = ShipOrder.RATING;
+        }
+        if (!isIdValidNumber(id) || order == ShipOrder.ID) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        ShipRank rank = shipService.getShipRank(Long.parseLong(id), order);
+        return rank != null
+                ? new ResponseEntity<>(rank, HttpStatus.OK)
+                : new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Ship> getShipById(@PathVariable String id) {
+    public ResponseEntity<Ship> getShipById(@PathVariable String id,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                    String ifNoneMatch) {
         if (!isIdValidNumber(id)) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
         Ship ship = shipService.getShipById(Long.parseLong(id));
+        if (ship == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
 
-        return ship != null ?
-                new ResponseEntity<>(ship, HttpStatus.OK) :
-                new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        HttpHeaders headers = getETagHeaders(ship);
+        if (ifNoneMatch != null && (WILDCARD_ETAG.equals(ifNoneMatch.trim())
+                || ship.getVersion() != null && ship.getVersion().equals(parseETag(ifNoneMatch)))) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        return new ResponseEntity<>(ship, headers, HttpStatus.OK);
     }
 
+    /**
+     * With {@code If-Match} the ship is only updated while its version still equals the tag, otherwise
+     * the response is 412. An update that loses a race with another one is rejected the same way,
+     * or with 409 when the client sent no precondition.
+     */
     @PostMapping("/{id}")
     public ResponseEntity<Ship> upDateShip(@PathVariable String id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                   String ifMatch,
                                            @RequestBody Ship ship) {
         if (!isIdValidNumber(id)) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
 
         if (ship != null) {
-            TypeResultUpdateStatus typeResultUpdateStatus = shipService.update(ship, Long.parseLong(id));
-            switch (typeResultUpdateStatus) {
+            Long expectedVersion = null;
+            if (ifMatch != null && !WILDCARD_ETAG.equals(ifMatch.trim())) {
+                expectedVersion = parseETag(ifMatch);
+                if (expectedVersion == null) {
+                    return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+                }
+            }
+
+            ShipUpdateResult result;
+            try {
+                result = shipService.update(ship, Long.parseLong(id), expectedVersion);
+            } catch (OptimisticLockingFailureException e) {
+                return new ResponseEntity<>(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT);
+            }
+            switch (result.getStatus()) {
                 case OK:
-                    Ship shipUpdated = shipService.getShipById(Long.parseLong(id));
-                    return new ResponseEntity<>(shipUpdated, HttpStatus.OK);
+                    return new ResponseEntity<>(result.getShip(), getETagHeaders(result.getShip()), HttpStatus.OK);
                 case NOT_FOUND:
                     return new ResponseEntity<>(HttpStatus.NOT_FOUND);
                 case BAD_REQUEST:
                     return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+                case PRECONDITION_FAILED:
+                    return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
             }
         }
         return new ResponseEntity<>(HttpStatus.OK);
@@ -115,6 +349,33 @@ public class MyShipController {
                 new ResponseEntity<>(HttpStatus.OK) : new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
+    private HttpHeaders getETagHeaders(Ship ship) {
+        HttpHeaders headers = new HttpHeaders();
+        if (ship.getVersion() != null) {
+            headers.setETag("\"" + ship.getVersion() + "\"");
+        }
+        return headers;
+    }
+
+    /**
+     * Version in an entity tag such as {@code "3"} or {@code W/"3"}, or {@code null} when the tag was not
+     * issued by this controller. Of a list of tags only the first one is considered.
+     */
+    private Long parseETag(String eTag) {
+        String tag = eTag.split(",")[0].trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return null;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     private boolean isIdValidNumber(String idString) {
         try {
             long id = Long.parseLong(idString);
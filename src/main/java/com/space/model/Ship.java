@@ -1,13 +1,26 @@
 package com.space.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import java.util.Date;
 import java.util.Objects;
 
 @Entity
+@DynamicUpdate
 public class Ship {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "ship_id")
+    @GenericGenerator(name = "ship_id", strategy = "com.space.repository.ShipIdGenerator", parameters = {
+            @Parameter(name = "table_name", value = "ship_sequence"),
+            @Parameter(name = "segment_column_name", value = "sequence_name"),
+            @Parameter(name = "value_column_name", value = "last_val"),
+            @Parameter(name = "segment_value", value = "ship"),
+            @Parameter(name = "increment_size", value = "500"),
+            @Parameter(name = "optimizer", value = "pooled-lo")})
     private Long id;
     private String name;
     private String planet;
@@ -18,6 +31,9 @@ public class Ship {
     private Double speed;
     private Integer crewSize;
     private Double rating;
+    @Version
+    @JsonIgnore
+    private Long version;
 
     public Long getId() {
         return id;
@@ -91,6 +107,17 @@ public class Ship {
         this.rating = rating;
     }
 
+    /**
+     * Optimistic lock version, incremented by every update and exposed to clients as the ETag.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,28 @@
+package com.space.repository;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Table generator for {@code Ship.id} whose block size is taken from the {@code ship.id.allocationSize}
+ * setting instead of the mapping. Each node reserves a whole block with one locked update of the
+ * sequence row and hands out its ids from memory, so nodes sharing a database never overlap.
+ */
+public class ShipIdGenerator extends TableGenerator {
+    public final static String ALLOCATION_SIZE = "ship.id.allocationSize";
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Object allocationSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSettings().get(ALLOCATION_SIZE);
+        if (allocationSize != null) {
+            params.setProperty(INCREMENT_PARAM, allocationSize.toString());
+        }
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -2,7 +2,20 @@ package com.space.repository;
 
 import com.space.model.Ship;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ShipRepository extends JpaRepository<Ship, Long> {
+public interface ShipRepository extends JpaRepository<Ship, Long>, JpaSpecificationExecutor<Ship>,
+        ShipRepositoryCustom {
 
+    /**
+     * Deletes the ship in one statement and returns the number of deleted rows, 0 when there was no such ship.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Ship s where s.id = :id")
+    int deleteShipById(@Param("id") long id);
 }
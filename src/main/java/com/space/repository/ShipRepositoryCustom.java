@@ -0,0 +1,88 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface ShipRepositoryCustom {
+
+    /**
+     * Returns up to {@code limit} ships matching the specification starting at {@code offset},
+     * sorted and limited in the database. Unlike {@code findAll(Specification, Pageable)}
+     * no additional count query is issued.
+     */
+    List<Ship> findSlice(Specification<Ship> specification, Sort sort, long offset, int limit);
+
+    /**
+     * Streams the whole table in id order, reading it in keyset batches so that only one batch
+     * of entities is held at a time.
+     */
+    void forEachShip(Consumer<Ship> action);
+
+    /**
+     * Streams the ships matching the specification in id order through a forward-only cursor, fetching
+     * rows from the database in chunks. Ships are detached once consumed, so the heap use does not
+     * grow with the number of rows.
+     */
+    void scrollShips(Specification<Ship> specification, Consumer<Ship> action);
+
+    /**
+     * Inserts all ships in one transaction. The persistence context is flushed and cleared every
+     * {@code hibernate.jdbc.batch_size} ships, so each flush goes out as a single JDBC batch.
+     */
+    void insertAll(List<Ship> ships);
+
+    /**
+     * Locks the ships matching the specification with SELECT ... FOR UPDATE and applies the update to
+     * them in UPDATE statements of up to 1000 ids, all in one transaction. Returns the ids of the updated
+     * ships in ascending order.
+     */
+    long[] updateAll(Specification<Ship> specification, ShipUpdate update);
+
+    /**
+     * Deletes the ships matching the specification like {@link #updateAll} updates them and returns
+     * their ids in ascending order.
+     */
+    long[] deleteAll(Specification<Ship> specification);
+
+    /**
+     * Aggregates the ships matching the specification in one GROUP BY over shipType, planet and isUsed.
+     * Each row holds the three group columns followed by the ship count and the sum and non-null count
+     * of speed, rating and crewSize.
+     */
+    List<Object[]> aggregateByGroup(Specification<Ship> specification);
+
+    /**
+     * Takes the lease of the rating recomputation job for {@code owner} until {@code leaseUntil} (epoch
+     * milliseconds) if no other owner holds an unexpired one. Returns whether the lease was taken.
+     */
+    boolean claimRatingJob(String owner, long leaseUntil);
+
+    /**
+     * Extends the lease of {@code owner} to {@code leaseUntil}. Returns {@code false} if the owner has lost it.
+     */
+    boolean renewRatingJob(String owner, long leaseUntil);
+
+    void releaseRatingJob(String owner);
+
+    /**
+     * Id ranges of the rating recomputation that are not done yet, as {@code {fromId, toId}} pairs in id order.
+     */
+    List<long[]> findPendingRatingRanges();
+
+    /**
+     * Replaces the recorded ranges by consecutive ranges of {@code rangeSize} ids covering the ship table.
+     */
+    void createRatingRanges(int rangeSize);
+
+    /**
+     * Passes the ships with ids in {@code [fromId, toId]} to {@code rater} at once, writes the ones it changed
+     * and marks the range done, all in one transaction. Returns the number of ships read.
+     */
+    int recomputeRatingRange(long fromId, long toId, Consumer<List<Ship>> rater);
+
+    void deleteRatingRanges();
+}
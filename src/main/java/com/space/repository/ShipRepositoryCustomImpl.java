@@ -0,0 +1,289 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class ShipRepositoryCustomImpl implements ShipRepositoryCustom {
+    private final static int BATCH_SIZE = 10_000;
+    private final static String JDBC_BATCH_SIZE = "hibernate.jdbc.batch_size";
+    private final static int DEFAULT_INSERT_BATCH_SIZE = 50;
+    private final static int SCROLL_FETCH_SIZE = 1000;
+    private final static int BULK_CHUNK_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Ship> findSlice(Specification<Ship> specification, Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Ship> query = cb.createQuery(Ship.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public void forEachShip(Consumer<Ship> action) {
+        long lastId = 0;
+        List<Ship> batch;
+        do {
+            batch = entityManager.createQuery("select s from Ship s where s.id > :lastId order by s.id", Ship.class)
+                    .setParameter("lastId", lastId)
+                    .setMaxResults(BATCH_SIZE)
+                    .getResultList();
+            for (Ship ship : batch) {
+                action.accept(ship);
+                lastId = ship.getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void scrollShips(Specification<Ship> specification, Consumer<Ship> action) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Ship> query = cb.createQuery(Ship.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get("id")));
+
+        try (ScrollableResults results = entityManager.createQuery(query)
+                .unwrap(Query.class)
+                .setFetchSize(SCROLL_FETCH_SIZE)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            int count = 0;
+            while (results.next()) {
+                action.accept((Ship) results.get(0));
+                if (++count % SCROLL_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Object[]> aggregateByGroup(Specification<Ship> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(root.get("shipType"), root.get("planet"), root.get("isUsed"),
+                cb.count(root),
+                cb.sum(root.get("speed")), cb.count(root.get("speed")),
+                cb.sum(root.get("rating")), cb.count(root.get("rating")),
+                cb.sum(root.get("crewSize")), cb.count(root.get("crewSize")));
+        query.groupBy(root.get("shipType"), root.get("planet"), root.get("isUsed"));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(List<Ship> ships) {
+        int batchSize = getInsertBatchSize();
+        for (int i = 0; i < ships.size(); i++) {
+            entityManager.persist(ships.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    @Transactional
+    public long[] updateAll(Specification<Ship> specification, ShipUpdate shipUpdate) {
+        long[] ids = lockIds(specification);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        for (int from = 0; from < ids.length; from += BULK_CHUNK_SIZE) {
+            CriteriaUpdate<Ship> update = cb.createCriteriaUpdate(Ship.class);
+            Root<Ship> root = update.from(Ship.class);
+            shipUpdate.apply(update, root, cb);
+            update.where(root.get("id").in(idChunk(ids, from)));
+            entityManager.createQuery(update).executeUpdate();
+        }
+        return ids;
+    }
+
+    @Override
+    @Transactional
+    public long[] deleteAll(Specification<Ship> specification) {
+        long[] ids = lockIds(specification);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        for (int from = 0; from < ids.length; from += BULK_CHUNK_SIZE) {
+            CriteriaDelete<Ship> delete = cb.createCriteriaDelete(Ship.class);
+            Root<Ship> root = delete.from(Ship.class);
+            delete.where(root.get("id").in(idChunk(ids, from)));
+            entityManager.createQuery(delete).executeUpdate();
+        }
+        return ids;
+    }
+
+    /**
+     * Ids of the ships matching the specification, locked until the end of the transaction so that the
+     * statements that follow change exactly these ships.
+     */
+    private long[] lockIds(Specification<Ship> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get("id")).orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList().stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    private static List<Long> idChunk(long[] ids, int from) {
+        int to = Math.min(ids.length, from + BULK_CHUNK_SIZE);
+        List<Long> chunk = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            chunk.add(ids[i]);
+        }
+        return chunk;
+    }
+
+    @Override
+    @Transactional
+    public boolean claimRatingJob(String owner, long leaseUntil) {
+        // the row lock of the UPDATE makes the check and the claim atomic across nodes
+        return entityManager.createNativeQuery(
+                "UPDATE rating_job SET owner = ?, lease_until = ? WHERE id = 1 AND (lease_until < ? OR owner = ?)")
+                .setParameter(1, owner)
+                .setParameter(2, leaseUntil)
+                .setParameter(3, System.currentTimeMillis())
+                .setParameter(4, owner)
+                .executeUpdate() == 1;
+    }
+
+    @Override
+    @Transactional
+    public boolean renewRatingJob(String owner, long leaseUntil) {
+        return entityManager.createNativeQuery("UPDATE rating_job SET lease_until = ? WHERE id = 1 AND owner = ?")
+                .setParameter(1, leaseUntil)
+                .setParameter(2, owner)
+                .executeUpdate() == 1;
+    }
+
+    @Override
+    @Transactional
+    public void releaseRatingJob(String owner) {
+        entityManager.createNativeQuery("UPDATE rating_job SET owner = NULL, lease_until = 0 WHERE id = 1 AND owner = ?")
+                .setParameter(1, owner)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<long[]> findPendingRatingRanges() {
+        List<Object[]> rows = entityManager.createNativeQuery(
+                "SELECT range_start, range_end FROM rating_job_range WHERE done = FALSE ORDER BY range_start")
+                .getResultList();
+        List<long[]> ranges = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ranges.add(new long[]{((Number) row[0]).longValue(), ((Number) row[1]).longValue()});
+        }
+        return ranges;
+    }
+
+    @Override
+    @Transactional
+    public void createRatingRanges(int rangeSize) {
+        entityManager.createNativeQuery("DELETE FROM rating_job_range").executeUpdate();
+
+        Object[] bounds = (Object[]) entityManager.createQuery("select min(s.id), max(s.id) from Ship s")
+                .getSingleResult();
+        if (bounds[0] == null) {
+            return;
+        }
+        long maxId = ((Number) bounds[1]).longValue();
+        for (long start = ((Number) bounds[0]).longValue(); start <= maxId; start += rangeSize) {
+            entityManager.createNativeQuery("INSERT INTO rating_job_range (range_start, range_end) VALUES (?, ?)")
+                    .setParameter(1, start)
+                    .setParameter(2, Math.min(start + rangeSize - 1, maxId))
+                    .executeUpdate();
+        }
+    }
+
+    @Override
+    @Transactional
+    public int recomputeRatingRange(long fromId, long toId, Consumer<List<Ship>> rater) {
+        List<Ship> ships = entityManager.createQuery(
+                "select s from Ship s where s.id between :fromId and :toId order by s.id", Ship.class)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .getResultList();
+        rater.accept(ships);
+
+        entityManager.createNativeQuery("UPDATE rating_job_range SET done = TRUE WHERE range_start = ?")
+                .setParameter(1, fromId)
+                .executeUpdate();
+        entityManager.flush();
+        entityManager.clear();
+        return ships.size();
+    }
+
+    @Override
+    @Transactional
+    public void deleteRatingRanges() {
+        entityManager.createNativeQuery("DELETE FROM rating_job_range").executeUpdate();
+    }
+
+    private int getInsertBatchSize() {
+        Object value = entityManager.getEntityManagerFactory().getProperties().get(JDBC_BATCH_SIZE);
+        if (value == null) {
+            return DEFAULT_INSERT_BATCH_SIZE;
+        }
+        int batchSize = Integer.parseInt(value.toString());
+        return batchSize > 0 ? batchSize : DEFAULT_INSERT_BATCH_SIZE;
+    }
+}
@@ -0,0 +1,15 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Root;
+
+/**
+ * SET clause of a set-based update, the counterpart of a {@code Specification} for the WHERE clause.
+ */
+@FunctionalInterface
+public interface ShipUpdate {
+    void apply(CriteriaUpdate<Ship> update, Root<Ship> root, CriteriaBuilder cb);
+}
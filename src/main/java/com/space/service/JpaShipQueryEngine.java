@@ -0,0 +1,42 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.repository.ShipRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class JpaShipQueryEngine implements ShipQueryEngine {
+    private final ShipRepository shipRepository;
+
+    public JpaShipQueryEngine(ShipRepository shipRepository) {
+        this.shipRepository = shipRepository;
+    }
+
+    @Override
+    public List<Ship> findAll(ShipFilter filter) {
+        return shipRepository.findAll(ShipSpecifications.byFilter(filter));
+    }
+
+    @Override
+    public List<Ship> findSorted(ShipFilter filter, ShipOrder order, ShipCursor after, long offset, int limit) {
+        Specification<Ship> specification = ShipSpecifications.byFilter(filter);
+        if (after != null) {
+            specification = specification.and(ShipSpecifications.seekAfter(after));
+        }
+        return shipRepository.findSlice(specification, getSort(order), offset, limit);
+    }
+
+    @Override
+    public long count(ShipFilter filter) {
+        return shipRepository.count(ShipSpecifications.byFilter(filter));
+    }
+
+    private Sort getSort(ShipOrder shipOrder) {
+        Sort sort = Sort.by(shipOrder.getFieldName());
+        // ties are broken by id so that consecutive pages never overlap or skip ships
+        return shipOrder == ShipOrder.ID ? sort : sort.and(Sort.by(ShipOrder.ID.getFieldName()));
+    }
+}
@@ -0,0 +1,220 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.repository.ShipRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recomputes the stored rating of every ship with the current {@link ShipRules}. The table is split into id
+ * ranges recorded in {@code rating_job_range}; a fork-join pool rates the ranges in parallel, each in its own
+ * short transaction that writes the changed ships in JDBC batches and marks the range done. Starting the job
+ * while ranges from an interrupted run are pending resumes that run instead of starting over.
+ * <p>
+ * Only one node runs the job at a time: it first takes the lease in {@code rating_job} and renews it after
+ * every range, and stops if another node has taken the lease over. The ships changed by a range are
+ * published to the change listeners as soon as its transaction has committed.
+ * <p>
+ * Rows are written with the usual version check, so a concurrent update wins and its own rating stands;
+ * the range is then retried.
+ */
+public class RatingRecomputeJob {
+    private final static int MAX_RANGE_ATTEMPTS = 3;
+    private final static double EPSILON = 1e-9;
+
+    public enum State {
+        IDLE,
+        RUNNING,
+        FINISHED,
+        FAILED
+    }
+
+    private final ShipRepository shipRepository;
+    private final ShipRules shipRules;
+    private final List<ShipChangeListener> changeListeners;
+    private final int parallelism;
+    private final int rangeSize;
+    private final long leaseMillis;
+    private final String owner = UUID.randomUUID().toString();
+
+    private final LongAdder shipsRead = new LongAdder();
+    private final LongAdder shipsUpdated = new LongAdder();
+    private final LongAdder rangesDone = new LongAdder();
+    private volatile State state = State.IDLE;
+    private volatile int rangesTotal;
+    private volatile boolean resumed;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile String error;
+
+    public RatingRecomputeJob(ShipRepository shipRepository, ShipRules shipRules,
+                              List<ShipChangeListener> changeListeners, int parallelism, int rangeSize,
+                              long leaseSeconds) {
+        this.shipRepository = shipRepository;
+        this.shipRules = shipRules;
+        this.changeListeners = changeListeners;
+        this.parallelism = parallelism;
+        this.rangeSize = rangeSize;
+        this.leaseMillis = TimeUnit.SECONDS.toMillis(leaseSeconds);
+    }
+
+    /**
+     * Starts the job in the background. Returns {@code false} when it is already running on this or another node.
+     */
+    public synchronized boolean start() {
+        if (state == State.RUNNING || !shipRepository.claimRatingJob(owner, leaseUntil())) {
+            return false;
+        }
+        shipsRead.reset();
+        shipsUpdated.reset();
+        rangesDone.reset();
+        rangesTotal = 0;
+        error = null;
+        startedNanos = System.nanoTime();
+        finishedNanos = 0;
+        state = State.RUNNING;
+
+        Thread thread = new Thread(this::run, "rating-recompute");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void run() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        State result = State.FAILED;
+        try {
+            List<long[]> ranges = shipRepository.findPendingRatingRanges();
+            resumed = !ranges.isEmpty();
+            if (!resumed) {
+                shipRepository.createRatingRanges(rangeSize);
+                ranges = shipRepository.findPendingRatingRanges();
+            }
+            rangesTotal = ranges.size();
+
+            if (!ranges.isEmpty()) {
+                pool.invoke(new RangeTask(ranges, 0, ranges.size()));
+            }
+            shipRepository.deleteRatingRanges();
+            result = State.FINISHED;
+        } catch (RuntimeException e) {
+            error = e.toString();
+        } finally {
+            pool.shutdown();
+            try {
+                shipRepository.releaseRatingJob(owner);
+            } catch (RuntimeException e) {
+                // the lease runs out by itself
+                error = error != null ? error : e.toString();
+            }
+            finishedNanos = System.nanoTime();
+            state = result;
+        }
+    }
+
+    private void recomputeRange(long[] range) {
+        for (int attempt = 1; ; attempt++) {
+            List<Ship> updated = new ArrayList<>();
+            try {
+                int read = shipRepository.recomputeRatingRange(range[0], range[1],
+                        ships -> updated.addAll(rate(ships)));
+                updated.forEach(ship -> changeListeners.forEach(listener -> listener.shipSaved(ship)));
+                shipsRead.add(read);
+                shipsUpdated.add(updated.size());
+                rangesDone.increment();
+                if (!shipRepository.renewRatingJob(owner, leaseUntil())) {
+                    throw new IllegalStateException("The rating job lease was taken over by another node");
+                }
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_RANGE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private long leaseUntil() {
+        return System.currentTimeMillis() + leaseMillis;
+    }
+
+    /**
+     * Rates the ships of a range column-wise in one pass, sets the new ratings and returns the ships whose
+     * rating changed. Ships without a speed, usage or production date keep theirs.
+     */
+    private List<Ship> rate(List<Ship> ships) {
+        double[] speeds = new double[ships.size()];
+        boolean[] used = new boolean[ships.size()];
+        int[] years = new int[ships.size()];
+        double[] ratings = new double[ships.size()];
+        List<Ship> rated = new ArrayList<>(ships.size());
+        for (Ship ship : ships) {
+            if (ship.getSpeed() != null && ship.getUsed() != null && ship.getProdDate() != null) {
+                speeds[rated.size()] = ship.getSpeed();
+                used[rated.size()] = ship.getUsed();
+                years[rated.size()] = shipRules.getYear(ship.getProdDate().getTime());
+                rated.add(ship);
+            }
+        }
+        shipRules.rate(speeds, used, years, ratings, rated.size());
+
+        List<Ship> updated = new ArrayList<>();
+        for (int i = 0; i < rated.size(); i++) {
+            Ship ship = rated.get(i);
+            if (ship.getRating() == null || Math.abs(ship.getRating() - ratings[i]) >= EPSILON) {
+                ship.setRating(ratings[i]);
+                updated.add(ship);
+            }
+        }
+        return updated;
+    }
+
+    public Map<String, Object> getProgress() {
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        long elapsedMs = state == State.IDLE ? 0 : TimeUnit.NANOSECONDS.toMillis(end - startedNanos);
+        long read = shipsRead.sum();
+
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("state", state);
+        progress.put("resumed", resumed);
+        progress.put("rangesTotal", rangesTotal);
+        progress.put("rangesDone", rangesDone.sum());
+        progress.put("shipsRead", read);
+        progress.put("shipsUpdated", shipsUpdated.sum());
+        progress.put("elapsedMs", elapsedMs);
+        progress.put("shipsPerSecond", elapsedMs == 0 ? 0.0 : read * 1000.0 / elapsedMs);
+        progress.put("error", error);
+        return progress;
+    }
+
+    private class RangeTask extends RecursiveAction {
+        private final List<long[]> ranges;
+        private final int from;
+        private final int to;
+
+        RangeTask(List<long[]> ranges, int from, int to) {
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                recomputeRange(ranges.get(from));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(ranges, from, middle), new RangeTask(ranges, middle, to));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.space.service;
+
+/**
+ * Outcome of one item of a batch request: its position in the request, the status it would have
+ * received as a single request and, for created ships, the assigned id.
+ */
+public class ShipBatchResult {
+    private final int index;
+    private final TypeResultUpdateStatus status;
+    private final Long id;
+
+    public ShipBatchResult(int index, TypeResultUpdateStatus status, Long id) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public TypeResultUpdateStatus getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
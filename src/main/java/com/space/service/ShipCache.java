@@ -0,0 +1,186 @@
+package com.space.service;
+
+import com.space.model.Ship;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Bounded LRU cache of ships by id with a time-to-live. Entries are written through on create
+ * and update and dropped on delete; a load that raced with a write is not cached, so a stale
+ * row can never replace a newer one.
+ */
+public class ShipCache implements ShipChangeListener {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Long, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public ShipCache(int maxSize, long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > ShipCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached ship, or loads it with {@code loader} and caches the result.
+     */
+    public Ship get(long id, LongFunction<Ship> loader) {
+        if (maxSize <= 0) {
+            return loader.apply(id);
+        }
+
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+                    hits.increment();
+                    return entry.ship;
+                }
+                entries.remove(id);
+                expirations.increment();
+            }
+        }
+
+        misses.increment();
+        long loadGeneration = generation.get();
+        Ship ship = loader.apply(id);
+        if (ship != null) {
+            synchronized (entries) {
+                if (generation.get() == loadGeneration) {
+                    entries.put(id, new Entry(ship));
+                }
+            }
+        }
+        return ship;
+    }
+
+    /**
+     * Returns the ships with the given ids in the same order, loading the ones not cached with a
+     * single call to {@code loader}. Ids that no longer exist are skipped.
+     */
+    public List<Ship> getAll(long[] ids, Function<List<Long>, List<Ship>> loader) {
+        Ship[] ships = new Ship[ids.length];
+        List<Long> missing = new ArrayList<>();
+        if (maxSize > 0) {
+            long now = System.nanoTime();
+            synchronized (entries) {
+                for (int i = 0; i < ids.length; i++) {
+                    Entry entry = entries.get(ids[i]);
+                    if (entry != null && now - entry.loadedAt < ttlNanos) {
+                        ships[i] = entry.ship;
+                    } else {
+                        missing.add(ids[i]);
+                    }
+                }
+            }
+            hits.add(ids.length - missing.size());
+            misses.add(missing.size());
+        } else {
+            for (long id : ids) {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long loadGeneration = generation.get();
+            Map<Long, Ship> loaded = new HashMap<>();
+            for (Ship ship : loader.apply(missing)) {
+                loaded.put(ship.getId(), ship);
+            }
+            for (int i = 0; i < ids.length; i++) {
+                if (ships[i] == null) {
+                    ships[i] = loaded.get(ids[i]);
+                }
+            }
+            if (maxSize > 0) {
+                synchronized (entries) {
+                    if (generation.get() == loadGeneration) {
+                        loaded.values().forEach(ship -> entries.put(ship.getId(), new Entry(ship)));
+                    }
+                }
+            }
+        }
+
+        List<Ship> result = new ArrayList<>(ids.length);
+        for (Ship ship : ships) {
+            if (ship != null) {
+                result.add(ship);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void shipSaved(Ship ship) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.put(ship.getId(), new Entry(ship));
+        }
+    }
+
+    @Override
+    public void shipDeleted(long id) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(id);
+        }
+    }
+
+    @Override
+    public void shipsReloaded() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public Map<String, Number> getStatistics() {
+        Map<String, Number> statistics = new LinkedHashMap<>();
+        synchronized (entries) {
+            statistics.put("size", entries.size());
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        statistics.put("maxSize", maxSize);
+        statistics.put("hits", hitCount);
+        statistics.put("misses", missCount);
+        statistics.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        statistics.put("evictions", evictions.sum());
+        statistics.put("expirations", expirations.sum());
+        return statistics;
+    }
+
+    private static class Entry {
+        private final Ship ship;
+        private final long loadedAt = System.nanoTime();
+
+        private Entry(Ship ship) {
+            this.ship = ship;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.space.service;
+
+import com.space.model.Ship;
+
+/**
+ * Receives every change made through {@link ShipService} once it has been written to the database.
+ */
+public interface ShipChangeListener {
+
+    default void shipSaved(Ship ship) {
+    }
+
+    default void shipDeleted(long id) {
+    }
+
+    /**
+     * The table may have been changed wholesale; any state derived from it must be rebuilt.
+     */
+    default void shipsReloaded() {
+    }
+}
@@ -0,0 +1,80 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last ship of a keyset page: the value of the {@link ShipOrder} sort key
+ * and the id used as a tiebreaker. Serialized as an opaque URL-safe token.
+ */
+public class ShipCursor {
+    private final static String SEPARATOR = "|";
+
+    private final ShipOrder order;
+    private final Object key;
+    private final long id;
+
+    private ShipCursor(ShipOrder order, Object key, long id) {
+        this.order = order;
+        this.key = key;
+        this.id = id;
+    }
+
+    public static ShipCursor of(ShipOrder order, Ship ship) {
+        switch (order) {
+            case SPEED:
+                return new ShipCursor(order, ship.getSpeed(), ship.getId());
+            case DATE:
+                return new ShipCursor(order, ship.getProdDate().getTime(), ship.getId());
+            case RATING:
+                return new ShipCursor(order, ship.getRating(), ship.getId());
+            default:
+                return new ShipCursor(ShipOrder.ID, ship.getId(), ship.getId());
+        }
+    }
+
+    /**
+     * Returns the decoded cursor, or {@code null} if the token is malformed or was issued for another order.
+     */
+    public static ShipCursor decode(String token, ShipOrder expectedOrder) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = value.split("\\" + SEPARATOR);
+            if (parts.length != 3 || !parts[0].equals(expectedOrder.name())) {
+                return null;
+            }
+            long id = Long.parseLong(parts[2]);
+            switch (expectedOrder) {
+                case SPEED:
+                case RATING:
+                    return new ShipCursor(expectedOrder, Double.parseDouble(parts[1]), id);
+                case DATE:
+                    return new ShipCursor(expectedOrder, Long.parseLong(parts[1]), id);
+                default:
+                    return new ShipCursor(expectedOrder, id, id);
+            }
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public String encode() {
+        String value = order.name() + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ShipOrder getOrder() {
+        return order;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,26 @@
+package com.space.service;
+
+import com.space.model.Ship;
+
+import java.util.List;
+
+public class ShipCursorPage {
+    private final List<Ship> ships;
+    private final String nextCursor;
+
+    public ShipCursorPage(List<Ship> ships, String nextCursor) {
+        this.ships = ships;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Ship> getShips() {
+        return ships;
+    }
+
+    /**
+     * Token for the following page, or {@code null} when this page is the last one.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
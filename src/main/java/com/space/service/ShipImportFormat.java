@@ -0,0 +1,12 @@
+package com.space.service;
+
+public enum ShipImportFormat {
+    /**
+     * Comma separated values with a header row naming the columns.
+     */
+    CSV,
+    /**
+     * One JSON ship object per line.
+     */
+    NDJSON
+}
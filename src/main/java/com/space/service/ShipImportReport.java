@@ -0,0 +1,79 @@
+package com.space.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of an import. Only the first {@link #MAX_REPORTED_ERRORS} rejected rows are described,
+ * so the report stays small for any input size; {@link #getRejected()} counts all of them.
+ */
+public class ShipImportReport {
+    public final static int MAX_REPORTED_ERRORS = 1000;
+
+    private long read;
+    private long imported;
+    private long rejected;
+    private final List<RowError> errors = new ArrayList<>();
+
+    synchronized void rowRead() {
+        read++;
+    }
+
+    synchronized void rowsImported(long count) {
+        imported += count;
+    }
+
+    synchronized void rowRejected(long row, String message) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            // parse errors are found before the validation errors of earlier rows, keep the list in input order
+            int position = errors.size();
+            while (position > 0 && errors.get(position - 1).row > row) {
+                position--;
+            }
+            errors.add(position, new RowError(row, message));
+        }
+    }
+
+    public synchronized long getRead() {
+        return read;
+    }
+
+    public synchronized long getImported() {
+        return imported;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    public synchronized List<RowError> getErrors() {
+        return new ArrayList<>(errors);
+    }
+
+    public static class RowError {
+        private final long row;
+        private final String message;
+
+        RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        /**
+         * Line number in the input, starting at 1.
+         */
+        public long getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "row " + row + ": " + message;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.space.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports ships from a CSV or NDJSON stream. The calling thread parses the input line by line and
+ * hands batches to a writer thread through a bounded queue; when the writer falls behind, the parser
+ * blocks, so at most {@code queueCapacity + 2} batches are held in memory whatever the input size.
+ * Every batch is validated and inserted by {@link ShipService#createAll(List)} in its own transaction.
+ */
+public class ShipImporter {
+    private final static String[] CSV_REQUIRED_COLUMNS = {"name", "planet", "shipType", "prodDate", "speed",
+            "crewSize"};
+    private final static String CSV_IS_USED_COLUMN = "isUsed";
+    private final static long OFFER_TIMEOUT_MS = 100;
+    private final static Batch END_OF_INPUT = new Batch(0);
+
+    private final ShipService shipService;
+    private final ObjectReader shipReader;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    public ShipImporter(ShipService shipService, ObjectMapper objectMapper, int batchSize, int queueCapacity) {
+        this.shipService = shipService;
+        this.shipReader = objectMapper.readerFor(Ship.class);
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Reads the whole stream and returns the report, or {@code null} when a CSV header lacks a required column.
+     */
+    public ShipImportReport importShips(InputStream input, ShipImportFormat format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        ShipImportReport report = new ShipImportReport();
+
+        long row = 0;
+        Map<String, Integer> columns = null;
+        if (format == ShipImportFormat.CSV) {
+            String header = reader.readLine();
+            row++;
+            columns = header != null ? getColumns(header) : null;
+            if (columns == null) {
+                return null;
+            }
+        }
+
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ship-import-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Future<?> written = writer.submit(() -> {
+            writeBatches(queue, report);
+            return null;
+        });
+        try {
+            Batch batch = new Batch(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                row++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                report.rowRead();
+
+                Ship ship;
+                try {
+                    ship = format == ShipImportFormat.CSV ? parseCsv(line, columns) : shipReader.readValue(line);
+                } catch (IOException | IllegalArgumentException | IndexOutOfBoundsException e) {
+                    report.rowRejected(row, "cannot parse row: " + e.getMessage());
+                    continue;
+                }
+
+                batch.add(ship, row);
+                if (batch.isFull()) {
+                    put(queue, batch, written);
+                    batch = new Batch(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                put(queue, batch, written);
+            }
+            put(queue, END_OF_INPUT, written);
+            written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Import failed", e.getCause());
+        } finally {
+            writer.shutdownNow();
+        }
+        return report;
+    }
+
+    private void writeBatches(BlockingQueue<Batch> queue, ShipImportReport report) throws InterruptedException {
+        Batch batch;
+        while ((batch = queue.take()) != END_OF_INPUT) {
+            List<ShipBatchResult> results = shipService.createAll(batch.ships);
+            long imported = 0;
+            for (ShipBatchResult result : results) {
+                if (result.getStatus() == TypeResultUpdateStatus.OK) {
+                    imported++;
+                } else {
+                    report.rowRejected(batch.rows[result.getIndex()], "ship values are missing or out of range");
+                }
+            }
+            report.rowsImported(imported);
+        }
+    }
+
+    /**
+     * Blocks while the queue is full, but gives up as soon as the writer has failed.
+     */
+    private void put(BlockingQueue<Batch> queue, Batch batch, Future<?> written)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            if (written.isDone()) {
+                written.get();
+                throw new IllegalStateException("Import writer stopped");
+            }
+        }
+    }
+
+    private static Map<String, Integer> getColumns(String header) {
+        List<String> names = splitCsv(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : CSV_REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required.toLowerCase(Locale.ROOT))) {
+                return null;
+            }
+        }
+        return columns;
+    }
+
+    private static Ship parseCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        Ship ship = new Ship();
+        ship.setName(getField(fields, columns, "name"));
+        ship.setPlanet(getField(fields, columns, "planet"));
+        String shipType = getField(fields, columns, "shipType");
+        ship.setShipType(shipType != null ? ShipType.valueOf(shipType) : null);
+        ship.setProdDate(parseDate(getField(fields, columns, "prodDate")));
+        String isUsed = getField(fields, columns, CSV_IS_USED_COLUMN);
+        ship.setUsed(isUsed != null ? Boolean.valueOf(isUsed) : null);
+        String speed = getField(fields, columns, "speed");
+        ship.setSpeed(speed != null ? Double.valueOf(speed) : null);
+        String crewSize = getField(fields, columns, "crewSize");
+        ship.setCrewSize(crewSize != null ? Integer.valueOf(crewSize) : null);
+        return ship;
+    }
+
+    private static String getField(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Accepts an ISO date ({@code 3010-01-01}) or epoch milliseconds, as sent by the JSON endpoints.
+     */
+    private static Date parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.matches("-?\\d+")) {
+            return new Date(Long.parseLong(value));
+        }
+        return Date.from(LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Splits one CSV line; fields may be quoted, with {@code ""} standing for a quote inside a quoted field.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static class Batch {
+        private final List<Ship> ships;
+        private final long[] rows;
+
+        Batch(int capacity) {
+            this.ships = new ArrayList<>(capacity);
+            this.rows = new long[capacity];
+        }
+
+        void add(Ship ship, long row) {
+            rows[ships.size()] = row;
+            ships.add(ship);
+        }
+
+        boolean isFull() {
+            return ships.size() == rows.length;
+        }
+
+        boolean isEmpty() {
+            return ships.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caches listing pages as id lists and counts as totals, keyed by the normalized filter, order
+ * and page bounds. Every write bumps a generation number; entries from an older generation are
+ * treated as misses. Writes made through other nodes bump nothing, so entries also expire after a
+ * time-to-live. Memory is bounded by an estimate of the bytes held, evicting least recently used
+ * entries first.
+ */
+public class ShipQueryCache implements ShipChangeListener {
+    private final static int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public ShipQueryCache(long maxBytes, long ttlSeconds) {
+        this.maxBytes = maxBytes;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    /**
+     * Returns a cached page, turning its ids back into ships with {@code resolver}, or runs
+     * {@code query} and caches the ids of its result.
+     */
+    public List<Ship> getPage(ShipFilter filter, ShipOrder order, long offset, int limit,
+                              Supplier<List<Ship>> query, Function<long[], List<Ship>> resolver) {
+        if (maxBytes <= 0) {
+            return query.get();
+        }
+
+        Key key = new Key(filter.normalized(), order, offset, limit);
+        Entry entry = lookup(key);
+        if (entry != null) {
+            return resolver.apply(entry.ids);
+        }
+
+        long queryGeneration = generation.get();
+        List<Ship> ships = query.get();
+        long[] ids = new long[ships.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ships.get(i).getId();
+        }
+        store(key, new Entry(key, queryGeneration, ids, 0));
+        return ships;
+    }
+
+    public long getCount(ShipFilter filter, LongSupplier query) {
+        if (maxBytes <= 0) {
+            return query.getAsLong();
+        }
+
+        Key key = new Key(filter.normalized(), null, 0, 0);
+        Entry entry = lookup(key);
+        if (entry != null) {
+            return entry.count;
+        }
+
+        long queryGeneration = generation.get();
+        long count = query.getAsLong();
+        store(key, new Entry(key, queryGeneration, null, count));
+        return count;
+    }
+
+    @Override
+    public void shipSaved(Ship ship) {
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void shipDeleted(long id) {
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void shipsReloaded() {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    public Map<String, Number> getStatistics() {
+        Map<String, Number> statistics = new LinkedHashMap<>();
+        synchronized (entries) {
+            statistics.put("entries", entries.size());
+            statistics.put("bytes", bytes);
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        statistics.put("maxBytes", maxBytes);
+        statistics.put("generation", generation.get());
+        statistics.put("hits", hitCount);
+        statistics.put("misses", missCount);
+        statistics.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        statistics.put("evictions", evictions.sum());
+        statistics.put("expirations", expirations.sum());
+        return statistics;
+    }
+
+    private Entry lookup(Key key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            boolean live = entry != null && System.nanoTime() - entry.loadedAt < ttlNanos;
+            if (live && entry.generation == generation.get()) {
+                hits.increment();
+                return entry;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                bytes -= entry.bytes;
+                if (!live) {
+                    expirations.increment();
+                }
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    private void store(Key key, Entry entry) {
+        synchronized (entries) {
+            // a write committed while the query ran; its result may already be outdated
+            if (entry.generation != generation.get() || entry.bytes > maxBytes) {
+                return;
+            }
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                bytes -= previous.bytes;
+            }
+            bytes += entry.bytes;
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().bytes;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static class Key {
+        private final ShipFilter filter;
+        private final ShipOrder order;
+        private final long offset;
+        private final int limit;
+
+        private Key(ShipFilter filter, ShipOrder order, long offset, int limit) {
+            this.filter = filter;
+            this.order = order;
+            this.offset = offset;
+            this.limit = limit;
+        }
+
+        private int textLength() {
+            return (filter.getName() != null ? filter.getName().length() : 0)
+                    + (filter.getPlanet() != null ? filter.getPlanet().length() : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return offset == key.offset && limit == key.limit && order == key.order && filter.equals(key.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, order, offset, limit);
+        }
+    }
+
+    private static class Entry {
+        private final long generation;
+        private final long[] ids;
+        private final long count;
+        private final long bytes;
+        private final long loadedAt = System.nanoTime();
+
+        private Entry(Key key, long generation, long[] ids, long count) {
+            this.generation = generation;
+            this.ids = ids;
+            this.count = count;
+            this.bytes = ENTRY_OVERHEAD_BYTES + key.textLength() * 2L + (ids != null ? 8L * ids.length : 0);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+
+import java.util.List;
+
+/**
+ * Evaluates ship filters, orders and pages. The default engine runs everything as SQL;
+ * alternative engines may answer from their own copy of the fleet, which they keep current
+ * through the {@link ShipChangeListener} callbacks.
+ */
+public interface ShipQueryEngine extends ShipChangeListener {
+
+    List<Ship> findAll(ShipFilter filter);
+
+    /**
+     * Returns at most {@code limit} matching ships sorted by {@code order} and then by id,
+     * skipping the first {@code offset} of them. When {@code after} is given only ships
+     * positioned after that cursor are considered.
+     */
+    List<Ship> findSorted(ShipFilter filter, ShipOrder order, ShipCursor after, long offset, int limit);
+
+    long count(ShipFilter filter);
+}
@@ -0,0 +1,36 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+
+public class ShipRank {
+    private final long id;
+    private final ShipOrder order;
+    private final long rank;
+    private final long total;
+
+    public ShipRank(long id, ShipOrder order, long rank, long total) {
+        this.id = id;
+        this.order = order;
+        this.rank = rank;
+        this.total = total;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public ShipOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * Position of the ship from 1 for the highest value, out of {@link #getTotal()} ranked ships.
+     */
+    public long getRank() {
+        return rank;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
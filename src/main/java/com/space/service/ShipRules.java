@@ -0,0 +1,155 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Validation and rating rules for ships. All checks work on primitives and the production year is
+ * derived from the epoch milliseconds arithmetically, so no call allocates a {@code Calendar} or a
+ * {@code java.time} object. The batch methods handle a whole list or a set of columns in one pass.
+ */
+@Component
+public class ShipRules {
+    public final static int MAX_LENGTH_BOUND_NAME_PLANET = 50;
+    public final static double MIN_SPEED = 0.01;
+    public final static double MAX_SPEED = 0.99;
+    public final static int AFTER_PROD_YEAR = 2800;
+    public final static int BEFORE_PROD_YEAR = 3019;
+    public final static int MIN_CREW_SIZE = 1;
+    public final static int MAX_CREW_SIZE = 9999;
+    private final static long MILLIS_PER_DAY = 86_400_000L;
+    private final static double USED_FACTOR = 0.5;
+
+    // production dates are calendar dates in the server zone, as Calendar.getInstance() used to read them
+    private final TimeZone zone = TimeZone.getDefault();
+
+    public boolean isNameValid(String value) {
+        return !value.isEmpty() && value.length() <= MAX_LENGTH_BOUND_NAME_PLANET;
+    }
+
+    public boolean isSpeedValid(double speed) {
+        return speed >= MIN_SPEED && speed <= MAX_SPEED;
+    }
+
+    public boolean isCrewSizeValid(int crewSize) {
+        return crewSize >= MIN_CREW_SIZE && crewSize <= MAX_CREW_SIZE;
+    }
+
+    public boolean isProdYearValid(int year) {
+        return year >= AFTER_PROD_YEAR && year <= BEFORE_PROD_YEAR;
+    }
+
+    /**
+     * Whether the ship has every field required by create, each within its range.
+     */
+    public boolean isValidForCreate(Ship ship) {
+        String name = ship.getName();
+        String planet = ship.getPlanet();
+        Double speed = ship.getSpeed();
+        Integer crewSize = ship.getCrewSize();
+        Date prodDate = ship.getProdDate();
+
+        return ship.getShipType() != null && name != null && isNameValid(name)
+                && planet != null && isNameValid(planet) && speed != null && isSpeedValid(speed)
+                && prodDate != null && isProdYearValid(getYear(prodDate.getTime()))
+                && crewSize != null && isCrewSizeValid(crewSize);
+    }
+
+    /**
+     * Whether every field set on the ship is within its range; unset fields are not checked.
+     */
+    public boolean isValidForUpdate(Ship ship) {
+        String name = ship.getName();
+        String planet = ship.getPlanet();
+        Double speed = ship.getSpeed();
+        Integer crewSize = ship.getCrewSize();
+        Date prodDate = ship.getProdDate();
+
+        return (name == null || isNameValid(name)) && (planet == null || isNameValid(planet))
+                && (speed == null || isSpeedValid(speed))
+                && (prodDate == null || isProdYearValid(getYear(prodDate.getTime())))
+                && (crewSize == null || isCrewSizeValid(crewSize));
+    }
+
+    /**
+     * Validates the ship for create and, if it is valid, fills in the defaults, rounds the speed and
+     * sets the rating. Returns whether the ship is valid.
+     */
+    public boolean prepareForCreate(Ship ship) {
+        if (ship == null || !isValidForCreate(ship)) {
+            return false;
+        }
+        if (ship.getUsed() == null) {
+            ship.setUsed(false);
+        }
+        ship.setSpeed(roundSpeed(ship.getSpeed()));
+        ship.setRating(getRating(ship));
+        return true;
+    }
+
+    /**
+     * {@link #prepareForCreate(Ship)} for every ship of the list, recording the outcome in {@code valid}.
+     * Returns the number of valid ships.
+     */
+    public int prepareForCreate(List<Ship> ships, boolean[] valid) {
+        int count = 0;
+        for (int i = 0; i < ships.size(); i++) {
+            valid[i] = prepareForCreate(ships.get(i));
+            if (valid[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public double roundSpeed(double speed) {
+        return Math.round(speed * 100.0) / 100.0;
+    }
+
+    public double getRating(double speed, boolean used, int year) {
+        double k = used ? USED_FACTOR : 1.0;
+        return Math.round((100 * 80 * speed * k) / (BEFORE_PROD_YEAR - year + 1)) / 100.0;
+    }
+
+    /**
+     * Rating from the speed, usage and production date of the ship, which must all be set.
+     */
+    public double getRating(Ship ship) {
+        return getRating(ship.getSpeed(), ship.getUsed(), getYear(ship.getProdDate().getTime()));
+    }
+
+    /**
+     * Column-wise rating of {@code length} ships into {@code ratings}, each equal to
+     * {@link #getRating(double, boolean, int)}; the rating job rates a whole id range this way.
+     */
+    public void rate(double[] speeds, boolean[] used, int[] years, double[] ratings, int length) {
+        for (int i = 0; i < length; i++) {
+            ratings[i] = getRating(speeds[i], used[i], years[i]);
+        }
+    }
+
+    /**
+     * Calendar year of the instant in the server zone.
+     */
+    public int getYear(long epochMillis) {
+        return yearOfEpochDay(Math.floorDiv(epochMillis + zone.getOffset(epochMillis), MILLIS_PER_DAY));
+    }
+
+    /**
+     * Proleptic Gregorian year of a day counted from 1970-01-01, computed in 400-year eras.
+     */
+    static int yearOfEpochDay(long epochDay) {
+        long days = epochDay + 719_468;
+        long era = Math.floorDiv(days, 146_097);
+        long dayOfEra = days - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        // the era years start in March, January and February belong to the next calendar year
+        return (int) (yearOfEra + era * 400 + (shiftedMonth >= 10 ? 1 : 0));
+    }
+}
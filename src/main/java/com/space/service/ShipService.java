@@ -6,23 +6,105 @@ import com.space.model.ShipType;
 import org.springframework.http.ResponseEntity;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ShipService {
     Ship create(Ship ship);
 
-    TypeResultUpdateStatus update(Ship ship, Long id);
+    /**
+     * Validates every ship like {@link #create(Ship)} and inserts the valid ones in one transaction.
+     * Returns {@code null} when the list is empty.
+     */
+    List<ShipBatchResult> createAll(List<Ship> ships);
+
+    /**
+     * Applies the non-null fields of {@code ship}. When {@code expectedVersion} is given and the stored ship
+     * has another version, nothing is changed and the status is {@code PRECONDITION_FAILED}.
+     */
+    ShipUpdateResult update(Ship ship, Long id, Long expectedVersion);
 
     boolean deleteShip(Long id);
 
+    /**
+     * Sets the non-null fields of {@code ship} on every ship with one of the ids that matches the filter,
+     * in set-based UPDATE statements of one transaction. Returns the number of updated ships, or
+     * {@code null} when the values are invalid or neither ids nor a filter condition are given.
+     */
+    Long updateShips(Ship ship, List<Long> ids, String name, String planet, ShipType shipType, Long after,
+                     Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                     Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                     Double maxRating);
+
+    /**
+     * Deletes every ship with one of the ids that matches the filter in set-based DELETE statements of one
+     * transaction. Returns the number of deleted ships, or {@code null} when neither ids nor a filter
+     * condition are given.
+     */
+    Long deleteShips(List<Long> ids, String name, String planet, ShipType shipType, Long after,
+                     Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                     Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                     Double maxRating);
+
     List<Ship> getShipsFilteredByAllField(String name, String planet, ShipType shipType, Long after,
                                 Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
                                 Integer minCrewSize, Integer maxCrewSize, Double minRating,
                                 Double maxRating);
 
+    /**
+     * Passes every ship matching the filter to {@code action} in id order, reading the rows through
+     * a database cursor instead of loading them into a list.
+     */
+    void exportShips(String name, String planet, ShipType shipType, Long after,
+                     Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                     Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                     Double maxRating, Consumer<Ship> action);
+
+    long getShipsCount(String name, String planet, ShipType shipType, Long after,
+                       Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                       Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                       Double maxRating);
+
+    /**
+     * Counts and averages of the ships matching the filter, from one grouped query. With the memory engine
+     * the unfiltered statistics come from running totals kept in memory instead.
+     */
+    ShipStatistics getStatistics(String name, String planet, ShipType shipType, Long after,
+                                 Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                                 Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                                 Double maxRating);
+
+    /**
+     * One page of the ships matching the filter. Returns {@code null} when the page starts beyond the
+     * largest offset the database accepts, {@link Integer#MAX_VALUE}.
+     */
     List<Ship> getShips(String name, String planet, ShipType shipType, Long after,
                         Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
                         Integer minCrewSize, Integer maxCrewSize, Double minRating,
                         Double maxRating, ShipOrder order, Integer pageNumber, Integer pageSize);
 
+    ShipCursorPage getShipsAfterCursor(String name, String planet, ShipType shipType, Long after,
+                                       Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                                       Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                                       Double maxRating, ShipOrder order, String cursor, Integer pageSize);
+
+    /**
+     * Rank of the ship by speed, rating or production date, or {@code null} if there is no such ship or it
+     * has no value to rank by. Ships the ranking has not seen are ranked by the database.
+     */
+    ShipRank getShipRank(Long id, ShipOrder order);
+
+    /**
+     * The {@code count} ships with the highest speed, rating or production date, best first, read off the
+     * ranking without sorting, or by the database when the ranking is off. Returns {@code null} when
+     * {@code count} is not positive or above 1000.
+     */
+    List<Ship> getTopShips(ShipOrder order, Integer count);
+
     Ship getShipById(Long id);
+
+    /**
+     * Rebuilds every cache and index derived from the ship table, e.g. after it was changed
+     * outside of this service.
+     */
+    void resync();
 }
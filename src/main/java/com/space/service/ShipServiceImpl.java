@@ -4,174 +4,288 @@ import com.space.controller.ShipOrder;
 import com.space.model.Ship;
 import com.space.model.ShipType;
 import com.space.repository.ShipRepository;
+import com.space.repository.ShipUpdate;
+import com.space.service.index.ShipAggregates;
+import com.space.service.index.ShipRanking;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.criteria.Expression;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 public class ShipServiceImpl implements ShipService {
     private final ShipRepository shipRepository;
-    private final static int MAX_LENGTH_BOUND_NAME_PLANET = 50;
+    private final ShipQueryEngine queryEngine;
+    private final ShipCache shipCache;
+    private final ShipQueryCache queryCache;
+    private final ShipRules shipRules;
+    private final ShipAggregates shipAggregates;
+    private final ShipRanking shipRanking;
+    private final List<ShipChangeListener> changeListeners;
     private final static int DEFAULT_PAGE_SIZE = 3;
     private final static int DEFAULT_PAGE_NUMBER = 0;
-    private final static double MIN_SPEED = 0.01;
-    private final static double MAX_SPEED = 0.99;
-    private final static int AFTER_PROD_YEAR = 2800;
-    private final static int BEFORE_PROD_YEAR = 3019;
-    private final static int MIN_CREW_SIZE = 1;
-    private final static int MAX_CREW_SIZE = 9999;
+    private final static int DEFAULT_TOP_COUNT = 10;
+    private final static int MAX_TOP_COUNT = 1000;
+    private final static int BULK_RELOAD_SIZE = 1000;
 
     @Autowired
-    public ShipServiceImpl(ShipRepository shipRepository) {
+    public ShipServiceImpl(ShipRepository shipRepository, ShipQueryEngine queryEngine, ShipCache shipCache,
+                           ShipQueryCache queryCache, ShipRules shipRules, ShipAggregates shipAggregates,
+                           ShipRanking shipRanking, List<ShipChangeListener> changeListeners) {
         this.shipRepository = shipRepository;
+        this.queryEngine = queryEngine;
+        this.shipCache = shipCache;
+        this.queryCache = queryCache;
+        this.shipRules = shipRules;
+        this.shipAggregates = shipAggregates;
+        this.shipRanking = shipRanking;
+        this.changeListeners = changeListeners;
     }
 
     @Override
     public Ship create(Ship ship) {
-        if (isShipValuesNotValid(ship)) {
+        if (!shipRules.prepareForCreate(ship)) {
             return null;
         }
 
-        if (ship.getUsed() == null) {
-            ship.setUsed(false);
+        Ship savedShip = shipRepository.save(ship);
+        changeListeners.forEach(listener -> listener.shipSaved(savedShip));
+
+        return savedShip;
+    }
+
+    @Override
+    public List<ShipBatchResult> createAll(List<Ship> ships) {
+        if (ships == null || ships.isEmpty()) {
+            return null;
+        }
+
+        boolean[] valid = new boolean[ships.size()];
+        for (Ship ship : ships) {
+            if (ship != null) {
+                // the batch only creates, an id in the body must not turn an item into an update
+                ship.setId(null);
+            }
+        }
+        int validCount = shipRules.prepareForCreate(ships, valid);
+        List<Ship> validShips = new ArrayList<>(validCount);
+        for (int i = 0; i < ships.size(); i++) {
+            if (valid[i]) {
+                validShips.add(ships.get(i));
+            }
+        }
+
+        if (!validShips.isEmpty()) {
+            shipRepository.insertAll(validShips);
+            validShips.forEach(ship -> changeListeners.forEach(listener -> listener.shipSaved(ship)));
+        }
+
+        List<ShipBatchResult> results = new ArrayList<>(ships.size());
+        for (int i = 0; i < ships.size(); i++) {
+            results.add(valid[i]
+                    ? new ShipBatchResult(i, TypeResultUpdateStatus.OK, ships.get(i).getId())
+                    : new ShipBatchResult(i, TypeResultUpdateStatus.BAD_REQUEST, null));
+        }
+        return results;
+    }
+
+    /**
+     * Loads the ship once and lets dirty checking write the changed columns on commit, so an update
+     * costs one SELECT and one UPDATE. All values are validated before any of them is applied, and the
+     * version check of the UPDATE rejects the commit if another update got in between.
+     */
+    @Override
+    @Transactional
+    public ShipUpdateResult update(Ship ship, Long id, Long expectedVersion) {
+        Ship shipUpdated = shipRepository.findById(id).orElse(null);
+        if (shipUpdated == null) {
+            return ShipUpdateResult.of(TypeResultUpdateStatus.NOT_FOUND);
+        }
+
+        if (expectedVersion != null && !expectedVersion.equals(shipUpdated.getVersion())) {
+            return ShipUpdateResult.of(TypeResultUpdateStatus.PRECONDITION_FAILED);
+        }
+
+        if (!shipRules.isValidForUpdate(ship)) {
+            return ShipUpdateResult.of(TypeResultUpdateStatus.BAD_REQUEST);
         }
 
-        ship.setSpeed(Math.round(ship.getSpeed() * 100.0) / 100.0);
+        if (ship.getName() != null) {
+            shipUpdated.setName(ship.getName());
+        }
+        if (ship.getPlanet() != null) {
+            shipUpdated.setPlanet(ship.getPlanet());
+        }
+        if (ship.getCrewSize() != null) {
+            shipUpdated.setCrewSize(ship.getCrewSize());
+        }
+        if (ship.getSpeed() != null) {
+            shipUpdated.setSpeed(shipRules.roundSpeed(ship.getSpeed()));
+        }
+        if (ship.getProdDate() != null) {
+            shipUpdated.setProdDate(ship.getProdDate());
+        }
+        if (ship.getUsed() != null) {
+            shipUpdated.setUsed(ship.getUsed());
+        }
+        if (ship.getShipType() != null) {
+            shipUpdated.setShipType(ship.getShipType());
+        }
 
-        ship.setRating(getRating(ship));
+        if (ship.getProdDate() != null || ship.getSpeed() != null || ship.getUsed() != null) {
+            shipUpdated.setRating(shipRules.getRating(shipUpdated));
+        }
 
-        shipRepository.save(ship);
+        afterCommit(() -> changeListeners.forEach(listener -> listener.shipSaved(shipUpdated)));
 
-        return ship;
+        return ShipUpdateResult.ok(shipUpdated);
     }
 
-    private boolean isShipValuesNotValid(Ship ship) {
-        String name = ship.getName();
-        String planet = ship.getPlanet();
-        Double speed = ship.getSpeed();
-        Integer crewSize = ship.getCrewSize();
-
-        return ship.getShipType() == null || name == null || name.length() > MAX_LENGTH_BOUND_NAME_PLANET
-                || name.isEmpty() || planet == null || planet.length() > MAX_LENGTH_BOUND_NAME_PLANET
-                || planet.isEmpty() || speed == null || speed > MAX_SPEED || speed < MIN_SPEED
-                || ship.getProdDate() == null || getYear(ship) < AFTER_PROD_YEAR || getYear(ship) > BEFORE_PROD_YEAR
-                || crewSize == null || crewSize < MIN_CREW_SIZE || crewSize > MAX_CREW_SIZE;
+    @Override
+    public boolean deleteShip(Long id) {
+        if (shipRepository.deleteShipById(id) == 0) {
+            return false;
+        }
+        changeListeners.forEach(listener -> listener.shipDeleted(id));
+        return true;
     }
 
-    private double getRating(Ship ship) {
-        double k = ship.getUsed() ? 0.5 : 1.0;
-        int year = getYear(ship);
-        return Math.round((100 * 80 * ship.getSpeed() * k) / (BEFORE_PROD_YEAR - year + 1)) / 100.0;
+    /**
+     * Runs {@code action} once the current transaction has committed, so listeners never see a write
+     * that is rolled back.
+     */
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
-    private int getYear(Ship ship) {
-        Date date = ship.getProdDate();
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
+    @Override
+    public Long updateShips(Ship ship, List<Long> ids, String name, String planet, ShipType shipType, Long after,
+                            Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                            Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                            Double maxRating) {
+        if (ship == null || isBulkValuesNotValid(ship)) {
+            return null;
+        }
 
-        return calendar.get(Calendar.YEAR);
-    }
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+        Specification<Ship> specification = getBulkSpecification(ids, filter);
+        if (specification == null) {
+            return null;
+        }
 
-    private List<Ship> sort(List<Ship> shipList, ShipOrder shipOrder) {
-        switch (shipOrder) {
-            case ID:
-                shipList.sort(Comparator.comparing(Ship::getId));
-                break;
-            case SPEED:
-                shipList.sort(Comparator.comparing(Ship::getSpeed));
-                break;
-            case RATING:
-                shipList.sort(Comparator.comparing(Ship::getRating));
-                break;
-            case DATE:
-                shipList.sort(Comparator.comparing(Ship::getProdDate));
-                break;
+        long[] updated = shipRepository.updateAll(specification, getBulkUpdate(ship));
+        // the new values were computed in SQL, so the ships are read back for the listeners
+        for (int from = 0; from < updated.length; from += BULK_RELOAD_SIZE) {
+            List<Long> chunk = new ArrayList<>(BULK_RELOAD_SIZE);
+            for (int i = from; i < Math.min(updated.length, from + BULK_RELOAD_SIZE); i++) {
+                chunk.add(updated[i]);
+            }
+            shipRepository.findAllById(chunk)
+                    .forEach(saved -> changeListeners.forEach(listener -> listener.shipSaved(saved)));
         }
-        return shipList;
+        return (long) updated.length;
     }
 
     @Override
-    public TypeResultUpdateStatus update(Ship ship, Long id) {
-        if (!shipRepository.existsById(id)) {
-            return TypeResultUpdateStatus.NOT_FOUND;
+    public Long deleteShips(List<Long> ids, String name, String planet, ShipType shipType, Long after,
+                            Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                            Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                            Double maxRating) {
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+        Specification<Ship> specification = getBulkSpecification(ids, filter);
+        if (specification == null) {
+            return null;
         }
 
-        Ship shipUpdated = shipRepository.findById(id).orElse(null);
+        long[] deleted = shipRepository.deleteAll(specification);
+        for (long id : deleted) {
+            changeListeners.forEach(listener -> listener.shipDeleted(id));
+        }
+        return (long) deleted.length;
+    }
+
+    private Specification<Ship> getBulkSpecification(List<Long> ids, ShipFilter filter) {
+        if (ids == null && filter.isEmpty()) {
+            return null;
+        }
+
+        Specification<Ship> specification = ShipSpecifications.byFilter(filter);
+        if (ids != null) {
+            specification = specification.and(ShipSpecifications.idIn(ids.stream()
+                    .filter(Objects::nonNull)
+                    .mapToLong(Long::longValue)
+                    .toArray()));
+        }
+        return specification;
+    }
+
+    private boolean isBulkValuesNotValid(Ship ship) {
+        return ship.getName() == null && ship.getPlanet() == null && ship.getShipType() == null
+                && ship.getProdDate() == null && ship.getUsed() == null && ship.getSpeed() == null
+                && ship.getCrewSize() == null || !shipRules.isValidForUpdate(ship);
+    }
+
+    /**
+     * SET clause for the non-null fields of {@code ship}. The rating is recomputed in SQL by the same
+     * formula as {@link ShipRules#getRating(Ship)}, with the new values taking the place of the columns they replace.
+     */
+    private ShipUpdate getBulkUpdate(Ship ship) {
+        return (update, root, cb) -> {
+            Double speed = ship.getSpeed() != null ? shipRules.roundSpeed(ship.getSpeed()) : null;
 
-        if (shipUpdated != null) {
             if (ship.getName() != null) {
-                String name = ship.getName();
-                if (name.length() > MAX_LENGTH_BOUND_NAME_PLANET || name.isEmpty()) {
-                    return TypeResultUpdateStatus.BAD_REQUEST;
-                } else {
-                    shipUpdated.setName(name);
-                }
+                update.set(root.<String>get("name"), ship.getName());
             }
-
             if (ship.getPlanet() != null) {
-                String planet = ship.getPlanet();
-                if (planet.length() > MAX_LENGTH_BOUND_NAME_PLANET || planet.isEmpty()) {
-                    return TypeResultUpdateStatus.BAD_REQUEST;
-                } else {
-                    shipUpdated.setPlanet(planet);
-                }
-            }
-
-            if (ship.getCrewSize() != null) {
-                Integer crewSize = ship.getCrewSize();
-                if (crewSize > 9999 || crewSize < 1) {
-                    return TypeResultUpdateStatus.BAD_REQUEST;
-                } else {
-                    shipUpdated.setCrewSize(crewSize);
-                }
+                update.set(root.<String>get("planet"), ship.getPlanet());
             }
-
-            if (ship.getSpeed() != null) {
-                Double speed = ship.getSpeed();
-                if (speed > MAX_SPEED || speed < MIN_SPEED) {
-                    return TypeResultUpdateStatus.BAD_REQUEST;
-                } else {
-                    shipUpdated.setSpeed(Math.round(100.0 * speed) / 100.0);
-                }
+            if (ship.getShipType() != null) {
+                update.set(root.<ShipType>get("shipType"), ship.getShipType());
             }
-
             if (ship.getProdDate() != null) {
-                int year = getYear(ship);
-                if (year > BEFORE_PROD_YEAR || year < AFTER_PROD_YEAR) {
-                    return TypeResultUpdateStatus.BAD_REQUEST;
-                } else {
-                    shipUpdated.setProdDate(ship.getProdDate());
-                }
+                update.set(root.<Date>get("prodDate"), ship.getProdDate());
             }
-
             if (ship.getUsed() != null) {
-                shipUpdated.setUsed(ship.getUsed());
+                update.set(root.<Boolean>get("isUsed"), ship.getUsed());
             }
-
-            if (ship.getShipType() != null) {
-                shipUpdated.setShipType(ship.getShipType());
+            if (speed != null) {
+                update.set(root.<Double>get("speed"), speed);
             }
-
-            if (ship.getProdDate() != null || ship.getSpeed() != null || ship.getUsed() != null) {
-                Double rating = getRating(shipUpdated);
-                shipUpdated.setRating(rating);
+            if (ship.getCrewSize() != null) {
+                update.set(root.<Integer>get("crewSize"), ship.getCrewSize());
             }
-
-            shipRepository.save(shipUpdated);
-
-            return TypeResultUpdateStatus.OK;
-
-        } else return TypeResultUpdateStatus.NOT_FOUND;
-    }
-
-    @Override
-    public boolean deleteShip(Long id) {
-        if (shipRepository.existsById(id)) {
-            shipRepository.deleteById(id);
-            return true;
-        }
-        return false;
+            update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+
+            if (ship.getProdDate() != null || speed != null || ship.getUsed() != null) {
+                Expression<Double> speedValue = speed != null ? cb.literal(speed) : root.get("speed");
+                Expression<Double> k = ship.getUsed() != null
+                        ? cb.literal(ship.getUsed() ? 0.5 : 1.0)
+                        : cb.<Double>selectCase().when(cb.equal(root.get("isUsed"), true), 0.5).otherwise(1.0);
+                Expression<Integer> year = ship.getProdDate() != null
+                        ? cb.literal(shipRules.getYear(ship.getProdDate().getTime()))
+                        : cb.function("year", Integer.class, root.get("prodDate"));
+
+                // floor(x + 0.5) rounds exactly like Math.round
+                Expression<Number> raw = cb.quot(cb.prod(cb.prod(cb.literal(100.0 * 80), speedValue), k),
+                        cb.diff(cb.literal(ShipRules.BEFORE_PROD_YEAR + 1), year));
+                Expression<Double> rounded = cb.function("floor", Double.class, cb.sum(cb.toDouble(raw), 0.5));
+                update.set(root.<Double>get("rating"), cb.toDouble(cb.quot(rounded, 100.0)));
+            }
+        };
     }
 
     @Override
@@ -180,25 +294,64 @@ public class ShipServiceImpl implements ShipService {
                                Integer minCrewSize, Integer maxCrewSize, Double minRating,
                                Double maxRating, ShipOrder order, Integer pageNumber, Integer pageSize) {
 
-        List<Ship> shipsFiltered = getShipsFilteredByAllField(name, planet, shipType, after, before, isUsed, minSpeed,
-                maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
-
         if (pageNumber == null) {
             pageNumber = DEFAULT_PAGE_NUMBER;
         }
         if (pageSize == null) {
             pageSize = DEFAULT_PAGE_SIZE;
         }
-        List<Ship> sortedShipsByOrder = order != null ? sort(shipsFiltered, order) : sort(shipsFiltered, ShipOrder.ID);
+        if (pageNumber < 0 || pageSize < 1) {
+            return new ArrayList<>();
+        }
+        long offset = (long) pageNumber * pageSize;
+        if (offset > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+        ShipOrder shipOrder = order != null ? order : ShipOrder.ID;
+        int limit = pageSize;
+
+        return queryCache.getPage(filter, shipOrder, offset, limit,
+                () -> queryEngine.findSorted(filter, shipOrder, null, offset, limit), this::getShipsByIds);
+    }
+
+    @Override
+    public ShipCursorPage getShipsAfterCursor(String name, String planet, ShipType shipType, Long after,
+                                              Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                                              Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                                              Double maxRating, ShipOrder order, String cursor, Integer pageSize) {
+        if (order == null) {
+            order = ShipOrder.ID;
+        }
+        if (pageSize == null) {
+            pageSize = DEFAULT_PAGE_SIZE;
+        }
+        if (pageSize < 1) {
+            return null;
+        }
 
-        List<Ship> result = new ArrayList<>();
-        for (int i = pageNumber * pageSize; i < (pageNumber + 1) * pageSize; i++) {
-            if (i < sortedShipsByOrder.size()) {
-                result.add(sortedShipsByOrder.get(i));
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+        ShipCursor shipCursor = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            shipCursor = ShipCursor.decode(cursor, order);
+            if (shipCursor == null) {
+                return null;
             }
         }
 
-        return result;
+        // one extra row tells whether another page follows without a count query
+        List<Ship> ships = queryEngine.findSorted(filter, order, shipCursor, 0, pageSize + 1);
+
+        String nextCursor = null;
+        if (ships.size() > pageSize) {
+            ships = ships.subList(0, pageSize);
+            nextCursor = ShipCursor.of(order, ships.get(pageSize - 1)).encode();
+        }
+
+        return new ShipCursorPage(ships, nextCursor);
     }
 
     @Override
@@ -207,55 +360,112 @@ public class ShipServiceImpl implements ShipService {
                                                  Integer minCrewSize, Integer maxCrewSize, Double minRating,
                                                  Double maxRating) {
 
-        List<Ship> shipList = shipRepository.findAll();
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
 
-        if (name != null) {
-            shipList.removeIf(ship -> !ship.getName().contains(name));
-        }
+        return queryEngine.findAll(filter);
+    }
 
-        if (planet != null) {
-            shipList.removeIf(ship -> !ship.getPlanet().contains(planet));
-        }
+    @Override
+    public void exportShips(String name, String planet, ShipType shipType, Long after,
+                            Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                            Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                            Double maxRating, Consumer<Ship> action) {
 
-        if (shipType != null) {
-            shipList.removeIf(ship -> !(ship.getShipType() == shipType));
-        }
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+
+        shipRepository.scrollShips(ShipSpecifications.byFilter(filter), action);
+    }
+
+    @Override
+    public long getShipsCount(String name, String planet, ShipType shipType, Long after,
+                              Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                              Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                              Double maxRating) {
+
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+
+        return queryCache.getCount(filter, () -> queryEngine.count(filter));
+    }
 
-        if (after != null) {
-            shipList.removeIf(ship -> ship.getProdDate().getTime() < after);
+    @Override
+    public ShipStatistics getStatistics(String name, String planet, ShipType shipType, Long after,
+                                        Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                                        Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                                        Double maxRating) {
+
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+        if (filter.isEmpty() && shipAggregates.isEnabled()) {
+            return shipAggregates.getStatistics();
         }
-        if (before != null) {
-            shipList.removeIf(ship -> ship.getProdDate().getTime() > before);
+
+        ShipStatistics statistics = new ShipStatistics();
+        for (Object[] row : shipRepository.aggregateByGroup(ShipSpecifications.byFilter(filter))) {
+            statistics.add((ShipType) row[0], (String) row[1], (Boolean) row[2], (Long) row[3],
+                    row[4] != null ? ((Number) row[4]).doubleValue() : 0, (Long) row[5],
+                    row[6] != null ? ((Number) row[6]).doubleValue() : 0, (Long) row[7],
+                    row[8] != null ? ((Number) row[8]).longValue() : 0, (Long) row[9]);
         }
-        if (minSpeed != null) {
-            shipList.removeIf(ship -> ship.getSpeed() < minSpeed);
+        return statistics;
+    }
+
+    @Override
+    public ShipRank getShipRank(Long id, ShipOrder order) {
+        if (shipRanking.isEnabled()) {
+            long rank = shipRanking.rank(id, order);
+            if (rank > 0) {
+                return new ShipRank(id, order, rank, shipRanking.count(order));
+            }
         }
-        if (maxSpeed != null) {
-            shipList.removeIf(ship -> ship.getSpeed() > maxSpeed);
+        // the ranking only sees the ships written through this instance, so the database has the last word
+        Ship ship = shipRepository.findById(id).orElse(null);
+        if (ship == null || !hasValue(ship, order)) {
+            return null;
         }
+        long rank = shipRepository.count(ShipSpecifications.rankedAhead(order, ship)) + 1;
+        return new ShipRank(id, order, rank, shipRepository.count(ShipSpecifications.isRanked(order)));
+    }
 
-        if (isUsed != null) {
-            shipList.removeIf(ship -> ship.getUsed() != isUsed);
+    @Override
+    public List<Ship> getTopShips(ShipOrder order, Integer count) {
+        if (count == null) {
+            count = DEFAULT_TOP_COUNT;
         }
-
-        if (minCrewSize != null) {
-            shipList.removeIf(ship -> ship.getCrewSize() < minCrewSize);
+        if (count < 1 || count > MAX_TOP_COUNT) {
+            return null;
         }
-        if (maxCrewSize != null) {
-            shipList.removeIf(ship -> ship.getCrewSize() > maxCrewSize);
+        if (shipRanking.isEnabled()) {
+            return getShipsByIds(shipRanking.top(order, count));
         }
+        Sort sort = Sort.by(Sort.Direction.DESC, order.getFieldName()).and(Sort.by(ShipOrder.ID.getFieldName()));
+        return shipRepository.findSlice(ShipSpecifications.isRanked(order), sort, 0, count);
+    }
 
-        if (minRating != null) {
-            shipList.removeIf(ship -> ship.getRating() < minRating);
-        }
-        if (maxRating != null) {
-            shipList.removeIf(ship -> ship.getRating() > maxRating);
+    private static boolean hasValue(Ship ship, ShipOrder order) {
+        switch (order) {
+            case SPEED:
+                return ship.getSpeed() != null;
+            case DATE:
+                return ship.getProdDate() != null;
+            default:
+                return ship.getRating() != null;
         }
-        return shipList;
     }
 
     @Override
     public Ship getShipById(Long id) {
-        return shipRepository.findById(id).orElse(null);
+        return shipCache.get(id, key -> shipRepository.findById(key).orElse(null));
+    }
+
+    private List<Ship> getShipsByIds(long[] ids) {
+        return shipCache.getAll(ids, shipRepository::findAllById);
+    }
+
+    @Override
+    public void resync() {
+        changeListeners.forEach(ShipChangeListener::shipsReloaded);
     }
 }
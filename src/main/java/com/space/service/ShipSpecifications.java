@@ -0,0 +1,151 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Translates a {@link ShipFilter} into a single JPA Criteria WHERE clause,
+ * so filtering happens in the database instead of on a loaded list. The name and planet
+ * substrings are matched case-sensitively; on MySQL this relies on the binary collation
+ * the V7 migration gives to both columns.
+ */
+public final class ShipSpecifications {
+    private final static char LIKE_ESCAPE = '!';
+
+    private ShipSpecifications() {
+    }
+
+    public static Specification<Ship> byFilter(ShipFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getName() != null) {
+                predicates.add(cb.like(root.get("name"), containsPattern(filter.getName()), LIKE_ESCAPE));
+            }
+            if (filter.getPlanet() != null) {
+                predicates.add(cb.like(root.get("planet"), containsPattern(filter.getPlanet()), LIKE_ESCAPE));
+            }
+            if (filter.getShipType() != null) {
+                predicates.add(cb.equal(root.get("shipType"), filter.getShipType()));
+            }
+            if (filter.getAfter() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<Date>get("prodDate"), new Date(filter.getAfter())));
+            }
+            if (filter.getBefore() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<Date>get("prodDate"), new Date(filter.getBefore())));
+            }
+            if (filter.getUsed() != null) {
+                predicates.add(cb.equal(root.get("isUsed"), filter.getUsed()));
+            }
+            if (filter.getMinSpeed() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("speed"), filter.getMinSpeed()));
+            }
+            if (filter.getMaxSpeed() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("speed"), filter.getMaxSpeed()));
+            }
+            if (filter.getMinCrewSize() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("crewSize"), filter.getMinCrewSize()));
+            }
+            if (filter.getMaxCrewSize() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("crewSize"), filter.getMaxCrewSize()));
+            }
+            if (filter.getMinRating() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("rating"), filter.getMinRating()));
+            }
+            if (filter.getMaxRating() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("rating"), filter.getMaxRating()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Specification<Ship> idIn(long[] ids) {
+        return (root, query, cb) -> {
+            if (ids.length == 0) {
+                return cb.disjunction();
+            }
+            List<Long> values = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                values.add(id);
+            }
+            return root.get("id").in(values);
+        };
+    }
+
+    /**
+     * Keyset predicate {@code (key, id) > (cursor.key, cursor.id)} for the order the cursor was issued for.
+     * Written as {@code key >= ? AND (key > ? OR id > ?)} so the key index bounds the range scan.
+     */
+    public static Specification<Ship> seekAfter(ShipCursor cursor) {
+        return (root, query, cb) -> {
+            Path<Long> id = root.get("id");
+            switch (cursor.getOrder()) {
+                case SPEED:
+                    return seek(cb, root.<Double>get("speed"), (Double) cursor.getKey(), id, cursor.getId());
+                case DATE:
+                    return seek(cb, root.<Date>get("prodDate"), new Date((Long) cursor.getKey()), id, cursor.getId());
+                case RATING:
+                    return seek(cb, root.<Double>get("rating"), (Double) cursor.getKey(), id, cursor.getId());
+                default:
+                    return cb.greaterThan(id, cursor.getId());
+            }
+        };
+    }
+
+    /**
+     * Ships with a value to rank by in the order.
+     */
+    public static Specification<Ship> isRanked(ShipOrder order) {
+        return (root, query, cb) -> cb.isNotNull(root.get(order.getFieldName()));
+    }
+
+    /**
+     * Ships ranked ahead of {@code ship} in the order: those with a higher value, and those with the same
+     * value and a lower id. The ship must have a value to rank by.
+     */
+    public static Specification<Ship> rankedAhead(ShipOrder order, Ship ship) {
+        return (root, query, cb) -> {
+            Path<Long> id = root.get("id");
+            switch (order) {
+                case SPEED:
+                    return ahead(cb, root.<Double>get("speed"), ship.getSpeed(), id, ship.getId());
+                case DATE:
+                    return ahead(cb, root.<Date>get("prodDate"), ship.getProdDate(), id, ship.getId());
+                default:
+                    return ahead(cb, root.<Double>get("rating"), ship.getRating(), id, ship.getId());
+            }
+        };
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate ahead(CriteriaBuilder cb, Path<Y> key, Y keyValue,
+                                                                     Path<Long> id, long idValue) {
+        return cb.or(cb.greaterThan(key, keyValue), cb.and(cb.equal(key, keyValue), cb.lessThan(id, idValue)));
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate seek(CriteriaBuilder cb, Path<Y> key, Y keyValue,
+                                                                    Path<Long> id, long idValue) {
+        return cb.and(cb.greaterThanOrEqualTo(key, keyValue),
+                cb.or(cb.greaterThan(key, keyValue), cb.greaterThan(id, idValue)));
+    }
+
+    private static String containsPattern(String value) {
+        StringBuilder pattern = new StringBuilder(value.length() + 2).append('%');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -0,0 +1,92 @@
+package com.space.service;
+
+import com.space.model.ShipType;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts and averages of speed, rating and crew size over a set of ships, in total and per ship type,
+ * planet and used/new. Filled from pre-aggregated groups, so it never sees single ships.
+ */
+public class ShipStatistics {
+    private final Group total = new Group();
+    private final Map<ShipType, Group> byShipType = new EnumMap<>(ShipType.class);
+    private final Map<String, Group> byPlanet = new TreeMap<>();
+    private final Map<String, Group> byUsed = new TreeMap<>();
+
+    public void add(ShipType shipType, String planet, Boolean isUsed, long count,
+                    double speedSum, long speedCount, double ratingSum, long ratingCount,
+                    long crewSizeSum, long crewSizeCount) {
+        if (count == 0) {
+            return;
+        }
+        total.add(count, speedSum, speedCount, ratingSum, ratingCount, crewSizeSum, crewSizeCount);
+        if (shipType != null) {
+            byShipType.computeIfAbsent(shipType, key -> new Group())
+                    .add(count, speedSum, speedCount, ratingSum, ratingCount, crewSizeSum, crewSizeCount);
+        }
+        if (planet != null) {
+            byPlanet.computeIfAbsent(planet, key -> new Group())
+                    .add(count, speedSum, speedCount, ratingSum, ratingCount, crewSizeSum, crewSizeCount);
+        }
+        if (isUsed != null) {
+            byUsed.computeIfAbsent(isUsed ? "used" : "new", key -> new Group())
+                    .add(count, speedSum, speedCount, ratingSum, ratingCount, crewSizeSum, crewSizeCount);
+        }
+    }
+
+    public long getCount() {
+        return total.count;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = total.toMap();
+        map.put("byShipType", toMap(byShipType));
+        map.put("byPlanet", toMap(byPlanet));
+        map.put("byUsed", toMap(byUsed));
+        return map;
+    }
+
+    private static Map<String, Object> toMap(Map<?, Group> groups) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        groups.forEach((key, group) -> map.put(key.toString(), group.toMap()));
+        return map;
+    }
+
+    private static class Group {
+        private long count;
+        private double speedSum;
+        private long speedCount;
+        private double ratingSum;
+        private long ratingCount;
+        private long crewSizeSum;
+        private long crewSizeCount;
+
+        private void add(long count, double speedSum, long speedCount, double ratingSum, long ratingCount,
+                         long crewSizeSum, long crewSizeCount) {
+            this.count += count;
+            this.speedSum += speedSum;
+            this.speedCount += speedCount;
+            this.ratingSum += ratingSum;
+            this.ratingCount += ratingCount;
+            this.crewSizeSum += crewSizeSum;
+            this.crewSizeCount += crewSizeCount;
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", count);
+            map.put("avgSpeed", average(speedSum, speedCount));
+            map.put("avgRating", average(ratingSum, ratingCount));
+            map.put("avgCrewSize", average(crewSizeSum, crewSizeCount));
+            return map;
+        }
+
+        private static Double average(double sum, long count) {
+            return count == 0 ? null : sum / count;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.space.service;
+
+import com.space.model.Ship;
+
+public class ShipUpdateResult {
+    private final TypeResultUpdateStatus status;
+    private final Ship ship;
+
+    private ShipUpdateResult(TypeResultUpdateStatus status, Ship ship) {
+        this.status = status;
+        this.ship = ship;
+    }
+
+    public static ShipUpdateResult ok(Ship ship) {
+        return new ShipUpdateResult(TypeResultUpdateStatus.OK, ship);
+    }
+
+    public static ShipUpdateResult of(TypeResultUpdateStatus status) {
+        return new ShipUpdateResult(status, null);
+    }
+
+    public TypeResultUpdateStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * The ship as written, set only for {@link TypeResultUpdateStatus#OK}.
+     */
+    public Ship getShip() {
+        return ship;
+    }
+}
@@ -3,5 +3,6 @@ package com.space.service;
 public enum TypeResultUpdateStatus {
     BAD_REQUEST,
     NOT_FOUND,
+    PRECONDITION_FAILED,
     OK
 }
@@ -0,0 +1,244 @@
+package com.space.service.index;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.repository.ShipRepository;
+import com.space.service.ShipChangeListener;
+import com.space.service.ShipFilter;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index over the attributes with few distinct values: {@code shipType}, {@code isUsed} and
+ * {@code planet}. A filter on them is answered by AND of the bitmaps, the planet substring by OR of
+ * the bitmaps of every planet containing it, matched case-sensitively like the rest of the memory
+ * engine, its only user; enabled with {@code ship.bitmap.enabled}. The code of a planet no ship is
+ * on anymore is freed for the next new planet.
+ */
+public class CategoryIndex implements ShipChangeListener, InitializingBean {
+    private final static ShipType[] SHIP_TYPES = ShipType.values();
+    private final static int NONE = -1;
+
+    private final ShipRepository shipRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IdBitmap[] byShipType = new IdBitmap[SHIP_TYPES.length];
+    private final IdBitmap used = new IdBitmap();
+    private final IdBitmap notUsed = new IdBitmap();
+    private final List<String> planets = new ArrayList<>();
+    private final List<IdBitmap> byPlanet = new ArrayList<>();
+    private final Map<String, Integer> planetCodes = new HashMap<>();
+    private final Deque<Integer> freePlanetCodes = new ArrayDeque<>();
+
+    // categories of every indexed ship, to unindex it on change
+    private final ShipRecords<Category> categories = new ShipRecords<>();
+
+    public CategoryIndex(ShipRepository shipRepository, boolean enabled) {
+        this.shipRepository = shipRepository;
+        this.enabled = enabled;
+        for (int i = 0; i < byShipType.length; i++) {
+            byShipType[i] = new IdBitmap();
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (IdBitmap bitmap : byShipType) {
+                bitmap.clear();
+            }
+            used.clear();
+            notUsed.clear();
+            planets.clear();
+            byPlanet.clear();
+            planetCodes.clear();
+            freePlanetCodes.clear();
+            categories.clear();
+            shipRepository.forEachShip(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipSaved(Ship ship) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unindex(ship.getId());
+            index(ship);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipDeleted(long id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipsReloaded() {
+        rebuild();
+    }
+
+    /**
+     * Returns the sorted ids among {@code candidates} (or among all ships if it is {@code null}) that
+     * match the shipType, isUsed and planet conditions of the filter. Returns {@code candidates}
+     * unchanged if the index is disabled or the filter has none of these conditions.
+     */
+    public long[] find(ShipFilter filter, long[] candidates) {
+        if (!enabled) {
+            return candidates;
+        }
+        lock.readLock().lock();
+        try {
+            IdBitmap matches = select(filter.normalized());
+            if (matches == null) {
+                return candidates;
+            }
+            return candidates != null ? matches.retainOf(candidates) : matches.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of matching ships if the filter has only shipType, isUsed and planet
+     * conditions, otherwise {@code -1}.
+     */
+    public long count(ShipFilter filter) {
+        ShipFilter normalized = filter.normalized();
+        if (!enabled || !normalized.withoutCategories().isEmpty()) {
+            return -1;
+        }
+        lock.readLock().lock();
+        try {
+            IdBitmap matches = select(normalized);
+            return matches != null ? matches.cardinality() : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called under the read lock; the result may be one of the index bitmaps.
+     */
+    private IdBitmap select(ShipFilter filter) {
+        IdBitmap result = null;
+        if (filter.getShipType() != null) {
+            result = byShipType[filter.getShipType().ordinal()];
+        }
+        if (filter.getUsed() != null) {
+            result = and(result, filter.getUsed() ? used : notUsed);
+        }
+        if (filter.getPlanet() != null) {
+            IdBitmap planet = new IdBitmap();
+            for (int code = 0; code < planets.size(); code++) {
+                String name = planets.get(code);
+                if (name != null && name.contains(filter.getPlanet())) {
+                    planet = IdBitmap.or(planet, byPlanet.get(code));
+                }
+            }
+            result = and(result, planet);
+        }
+        return result;
+    }
+
+    private static IdBitmap and(IdBitmap result, IdBitmap bitmap) {
+        return result != null ? IdBitmap.and(result, bitmap) : bitmap;
+    }
+
+    private void index(Ship ship) {
+        long id = ship.getId();
+        Category category = new Category(
+                ship.getShipType() != null ? ship.getShipType().ordinal() : NONE,
+                Boolean.TRUE.equals(ship.getUsed()),
+                ship.getPlanet() != null ? encodePlanet(ship.getPlanet()) : NONE);
+
+        if (category.shipType != NONE) {
+            byShipType[category.shipType].add(id);
+        }
+        (category.isUsed ? used : notUsed).add(id);
+        if (category.planet != NONE) {
+            byPlanet.get(category.planet).add(id);
+        }
+        categories.put(id, category);
+    }
+
+    private void unindex(long id) {
+        Category category = categories.remove(id);
+        if (category == null) {
+            return;
+        }
+        if (category.shipType != NONE) {
+            byShipType[category.shipType].remove(id);
+        }
+        (category.isUsed ? used : notUsed).remove(id);
+        if (category.planet != NONE) {
+            IdBitmap bitmap = byPlanet.get(category.planet);
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                planetCodes.remove(planets.set(category.planet, null));
+                freePlanetCodes.push(category.planet);
+            }
+        }
+    }
+
+    private int encodePlanet(String planet) {
+        Integer code = planetCodes.get(planet);
+        if (code == null) {
+            code = freePlanetCodes.poll();
+            if (code != null) {
+                planets.set(code, planet);
+            } else {
+                code = planets.size();
+                planets.add(planet);
+                byPlanet.add(new IdBitmap());
+            }
+            planetCodes.put(planet, code);
+        }
+        return code;
+    }
+
+    /**
+     * The bitmaps a ship is in: its shipType ordinal and planet code, {@code NONE} if unset, and isUsed.
+     */
+    private static final class Category {
+        private final int shipType;
+        private final boolean isUsed;
+        private final int planet;
+
+        private Category(int shipType, boolean isUsed, int planet) {
+            this.shipType = shipType;
+            this.isUsed = isUsed;
+            this.planet = planet;
+        }
+    }
+}
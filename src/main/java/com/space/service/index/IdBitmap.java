@@ -0,0 +1,331 @@
+package com.space.service.index;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of ship ids in the manner of Roaring bitmaps: ids are grouped by their high
+ * bits into chunks of 65536, and each chunk is stored as a sorted {@code char[]} while it holds
+ * at most 4096 ids or as a 1024-word bitset above that. Not thread-safe.
+ */
+final class IdBitmap {
+    private final static int CHUNK_BITS = 16;
+    private final static int LOW_MASK = 0xFFFF;
+    private final static int MAX_ARRAY_SIZE = 4096;
+    private final static int BITSET_WORDS = 1024;
+
+    private long[] keys = new long[4];
+    private Chunk[] chunks = new Chunk[4];
+    private int size;
+
+    long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += chunks[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(long id) {
+        int index = Arrays.binarySearch(keys, 0, size, id >>> CHUNK_BITS);
+        return index >= 0 && chunks[index].contains((int) id & LOW_MASK);
+    }
+
+    void add(long id) {
+        long key = id >>> CHUNK_BITS;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = -index - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                chunks = Arrays.copyOf(chunks, size * 2);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(chunks, index, chunks, index + 1, size - index);
+            keys[index] = key;
+            chunks[index] = new Chunk();
+            size++;
+        }
+        chunks[index].add((int) id & LOW_MASK);
+    }
+
+    void remove(long id) {
+        int index = Arrays.binarySearch(keys, 0, size, id >>> CHUNK_BITS);
+        if (index < 0) {
+            return;
+        }
+        Chunk chunk = chunks[index];
+        chunk.remove((int) id & LOW_MASK);
+        if (chunk.cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(chunks, index + 1, chunks, index, size - index - 1);
+            chunks[--size] = null;
+        }
+    }
+
+    void clear() {
+        Arrays.fill(chunks, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * The ids in ascending order.
+     */
+    long[] toArray() {
+        long[] ids = new long[(int) cardinality()];
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            position = chunks[i].copyTo(keys[i] << CHUNK_BITS, ids, position);
+        }
+        return ids;
+    }
+
+    /**
+     * The ids of this set that are also in the sorted array, in ascending order.
+     */
+    long[] retainOf(long[] sortedIds) {
+        long[] ids = new long[sortedIds.length];
+        int count = 0;
+        for (long id : sortedIds) {
+            if (contains(id)) {
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    static IdBitmap and(IdBitmap a, IdBitmap b) {
+        IdBitmap result = new IdBitmap();
+        for (int i = 0, j = 0; i < a.size && j < b.size; ) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Chunk chunk = Chunk.and(a.chunks[i], b.chunks[j]);
+                if (chunk.cardinality > 0) {
+                    result.append(a.keys[i], chunk);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    static IdBitmap or(IdBitmap a, IdBitmap b) {
+        IdBitmap result = new IdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || i < a.size && a.keys[i] < b.keys[j]) {
+                result.append(a.keys[i], a.chunks[i].copy());
+                i++;
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.chunks[j].copy());
+                j++;
+            } else {
+                result.append(a.keys[i], Chunk.or(a.chunks[i], b.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    private void append(long key, Chunk chunk) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            chunks = Arrays.copyOf(chunks, size * 2);
+        }
+        keys[size] = key;
+        chunks[size++] = chunk;
+    }
+
+    /**
+     * Low 16 bits of the ids of one chunk: {@code values} holds them sorted while there are at most
+     * {@link #MAX_ARRAY_SIZE}, otherwise {@code words} holds them as bits.
+     */
+    private static final class Chunk {
+        private char[] values = new char[4];
+        private long[] words;
+        private int cardinality;
+
+        private boolean contains(int value) {
+            if (words != null) {
+                return (words[value >>> 6] & 1L << value) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, (char) value) >= 0;
+        }
+
+        private void add(int value) {
+            if (words != null) {
+                long bit = 1L << value;
+                if ((words[value >>> 6] & bit) == 0) {
+                    words[value >>> 6] |= bit;
+                    cardinality++;
+                }
+                return;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) value);
+            if (index >= 0) {
+                return;
+            }
+            if (cardinality == MAX_ARRAY_SIZE) {
+                toWords();
+                add(value);
+                return;
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = (char) value;
+            cardinality++;
+        }
+
+        private void remove(int value) {
+            if (words != null) {
+                long bit = 1L << value;
+                if ((words[value >>> 6] & bit) != 0) {
+                    words[value >>> 6] &= ~bit;
+                    if (--cardinality <= MAX_ARRAY_SIZE) {
+                        toValues();
+                    }
+                }
+                return;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+        }
+
+        private int copyTo(long base, long[] ids, int position) {
+            if (words != null) {
+                for (int word = 0; word < BITSET_WORDS; word++) {
+                    long bits = words[word];
+                    while (bits != 0) {
+                        ids[position++] = base | (word << 6 | Long.numberOfTrailingZeros(bits));
+                        bits &= bits - 1;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    ids[position++] = base | values[i];
+                }
+            }
+            return position;
+        }
+
+        private Chunk copy() {
+            Chunk copy = new Chunk();
+            copy.cardinality = cardinality;
+            if (words != null) {
+                copy.words = words.clone();
+                copy.values = null;
+            } else {
+                copy.values = Arrays.copyOf(values, Math.max(1, cardinality));
+            }
+            return copy;
+        }
+
+        private static Chunk and(Chunk a, Chunk b) {
+            if (a.words != null && b.words != null) {
+                Chunk result = new Chunk();
+                result.values = null;
+                result.words = new long[BITSET_WORDS];
+                for (int word = 0; word < BITSET_WORDS; word++) {
+                    result.words[word] = a.words[word] & b.words[word];
+                    result.cardinality += Long.bitCount(result.words[word]);
+                }
+                if (result.cardinality <= MAX_ARRAY_SIZE) {
+                    result.toValues();
+                }
+                return result;
+            }
+            // probe the bitset or the larger array with the values of the smaller array
+            Chunk small = a.words == null && (b.words != null || a.cardinality <= b.cardinality) ? a : b;
+            Chunk other = small == a ? b : a;
+            Chunk result = new Chunk();
+            result.values = new char[Math.max(1, small.cardinality)];
+            for (int i = 0; i < small.cardinality; i++) {
+                if (other.contains(small.values[i])) {
+                    result.values[result.cardinality++] = small.values[i];
+                }
+            }
+            return result;
+        }
+
+        private static Chunk or(Chunk a, Chunk b) {
+            Chunk result = new Chunk();
+            if (a.words == null && b.words == null && a.cardinality + b.cardinality <= MAX_ARRAY_SIZE) {
+                result.values = new char[Math.max(1, a.cardinality + b.cardinality)];
+                int i = 0;
+                int j = 0;
+                while (i < a.cardinality || j < b.cardinality) {
+                    char value;
+                    if (j == b.cardinality || i < a.cardinality && a.values[i] < b.values[j]) {
+                        value = a.values[i++];
+                    } else if (i == a.cardinality || a.values[i] > b.values[j]) {
+                        value = b.values[j++];
+                    } else {
+                        value = a.values[i++];
+                        j++;
+                    }
+                    result.values[result.cardinality++] = value;
+                }
+                return result;
+            }
+            result.values = null;
+            result.words = a.words != null ? a.words.clone() : new long[BITSET_WORDS];
+            if (a.words == null) {
+                for (int i = 0; i < a.cardinality; i++) {
+                    result.words[a.values[i] >>> 6] |= 1L << a.values[i];
+                }
+            }
+            if (b.words != null) {
+                for (int word = 0; word < BITSET_WORDS; word++) {
+                    result.words[word] |= b.words[word];
+                }
+            } else {
+                for (int i = 0; i < b.cardinality; i++) {
+                    result.words[b.values[i] >>> 6] |= 1L << b.values[i];
+                }
+            }
+            for (long word : result.words) {
+                result.cardinality += Long.bitCount(word);
+            }
+            if (result.cardinality <= MAX_ARRAY_SIZE) {
+                result.toValues();
+            }
+            return result;
+        }
+
+        private void toWords() {
+            words = new long[BITSET_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toValues() {
+            values = new char[Math.max(1, cardinality)];
+            int count = 0;
+            for (int word = 0; word < BITSET_WORDS; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    values[count++] = (char) (word << 6 | Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            words = null;
+        }
+    }
+}
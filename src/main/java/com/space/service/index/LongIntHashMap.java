@@ -0,0 +1,113 @@
+package com.space.service.index;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from ship id to row position without boxing. Id {@code 0} is never
+ * assigned by the database and marks free slots.
+ */
+final class LongIntHashMap {
+    private final static long FREE = 0L;
+    private final static int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntHashMap() {
+        allocate(16);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value for the key, or {@code -1} if absent.
+     */
+    int get(long key) {
+        int slot = find(key);
+        return keys[slot] == FREE ? MISSING : values[slot];
+    }
+
+    void put(long key, int value) {
+        int slot = find(key);
+        if (keys[slot] == FREE) {
+            if ((size + 1) * 4L > keys.length * 3L) {
+                grow();
+                slot = find(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Removes the key and returns its value, or {@code -1} if it was absent.
+     */
+    int remove(long key) {
+        int slot = find(key);
+        if (keys[slot] == FREE) {
+            return MISSING;
+        }
+        int removed = values[slot];
+
+        // backward-shift deletion keeps every probe chain contiguous without tombstones
+        int free = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == FREE) {
+                break;
+            }
+            int home = home(keys[next]);
+            boolean reachable = free <= next ? (free < home && home <= next) : (free < home || home <= next);
+            if (!reachable) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+        }
+        keys[free] = FREE;
+        size--;
+        return removed;
+    }
+
+    void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    private int find(long key) {
+        int slot = home(key);
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int home(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,45 @@
+package com.space.service.index;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of ids backed by a growable {@code long[]}.
+ */
+final class LongList {
+    private long[] values = new long[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    boolean contains(long value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    void add(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return;
+        }
+        index = -index - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+    }
+
+    void remove(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+        }
+    }
+}
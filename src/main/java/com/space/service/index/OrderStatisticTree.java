@@ -0,0 +1,173 @@
+package com.space.service.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Treap of (key, id) entries ordered by descending key and then ascending id, where every node
+ * knows the size of its subtree. Inserting, removing and finding the position of an entry take
+ * O(log n) expected time; the first n entries are read off in O(log n + n). Not thread-safe.
+ */
+final class OrderStatisticTree {
+    private Node root;
+    private int seed = 0x2545F491;
+
+    int size() {
+        return size(root);
+    }
+
+    void insert(double key, long id) {
+        root = insert(root, new Node(key, id, nextPriority()));
+    }
+
+    void remove(double key, long id) {
+        root = remove(root, key, id);
+    }
+
+    /**
+     * Number of entries before the given one, or {@code -1} if it is absent.
+     */
+    int indexOf(double key, long id) {
+        int index = 0;
+        Node node = root;
+        while (node != null) {
+            int result = compare(key, id, node);
+            if (result < 0) {
+                node = node.left;
+            } else if (result > 0) {
+                index += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return index + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Ids of the first {@code n} entries in order.
+     */
+    long[] first(int n) {
+        long[] ids = new long[Math.min(n, size())];
+        int count = 0;
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        while (count < ids.length) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            ids[count++] = node.id;
+            node = node.right;
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    void clear() {
+        root = null;
+    }
+
+    private Node insert(Node node, Node entry) {
+        if (node == null) {
+            return entry;
+        }
+        if (entry.priority > node.priority) {
+            Node[] parts = split(node, entry.key, entry.id);
+            entry.left = parts[0];
+            entry.right = parts[1];
+            return entry.update();
+        }
+        if (compare(entry.key, entry.id, node) < 0) {
+            node.left = insert(node.left, entry);
+        } else {
+            node.right = insert(node.right, entry);
+        }
+        return node.update();
+    }
+
+    private Node remove(Node node, double key, long id) {
+        if (node == null) {
+            return null;
+        }
+        int result = compare(key, id, node);
+        if (result == 0) {
+            return merge(node.left, node.right);
+        }
+        if (result < 0) {
+            node.left = remove(node.left, key, id);
+        } else {
+            node.right = remove(node.right, key, id);
+        }
+        return node.update();
+    }
+
+    /**
+     * Splits into the entries before (key, id) and the others.
+     */
+    private Node[] split(Node node, double key, long id) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (compare(key, id, node) > 0) {
+            Node[] parts = split(node.right, key, id);
+            node.right = parts[0];
+            parts[0] = node.update();
+            return parts;
+        }
+        Node[] parts = split(node.left, key, id);
+        node.left = parts[1];
+        parts[1] = node.update();
+        return parts;
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null || right == null) {
+            return left != null ? left : right;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return left.update();
+        }
+        right.left = merge(left, right.left);
+        return right.update();
+    }
+
+    private static int compare(double key, long id, Node node) {
+        int result = Double.compare(node.key, key);
+        return result != 0 ? result : Long.compare(id, node.id);
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private int nextPriority() {
+        // xorshift; writers are serialized, so the state needs no synchronization
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private static final class Node {
+        private final double key;
+        private final long id;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(double key, long id, int priority) {
+            this.key = key;
+            this.id = id;
+            this.priority = priority;
+        }
+
+        private Node update() {
+            size = 1 + size(left) + size(right);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.space.service.index;
+
+import com.space.controller.ShipOrder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * The rows of {@link ShipColumns} kept sorted by (key, id) for every {@link ShipOrder}, with the
+ * keys of {@link TopRows#key}, so a page can be read off in order instead of being selected from
+ * all matches. Holds ids rather than rows because rows move on delete. Not thread-safe;
+ * {@link ShipColumnIndex} guards access.
+ */
+final class OrderViews {
+    private final Map<ShipOrder, TreeSet<Key>> views = new EnumMap<>(ShipOrder.class);
+
+    OrderViews() {
+        for (ShipOrder order : ShipOrder.values()) {
+            views.put(order, new TreeSet<>());
+        }
+    }
+
+    void add(ShipColumns columns, int row) {
+        views.forEach((order, view) -> view.add(new Key(TopRows.key(columns, order, row), columns.id(row))));
+    }
+
+    /**
+     * Must be called before the row changes, while it still has the values it was added with.
+     */
+    void remove(ShipColumns columns, int row) {
+        views.forEach((order, view) -> view.remove(new Key(TopRows.key(columns, order, row), columns.id(row))));
+    }
+
+    void clear() {
+        views.values().forEach(TreeSet::clear);
+    }
+
+    NavigableSet<Key> view(ShipOrder order) {
+        return views.get(order);
+    }
+
+    /**
+     * The part of the view after the given key and id, in order.
+     */
+    NavigableSet<Key> viewAfter(ShipOrder order, double key, long id) {
+        return views.get(order).tailSet(new Key(key, id), false);
+    }
+
+    static final class Key implements Comparable<Key> {
+        private final double key;
+        private final long id;
+
+        private Key(double key, long id) {
+            this.key = key;
+            this.id = id;
+        }
+
+        long id() {
+            return id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = Double.compare(key, other.key);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.space.service.index;
+
+import com.space.model.Ship;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Changes published while an index is rebuilt from the database, in order, to be replayed onto the
+ * rebuilt copy before or right after it is swapped in. The scan of the rebuild may or may not have
+ * read a change; replaying it gives the same result either way, as a save replaces the ship's entries
+ * and a delete removes them. Thread-safe.
+ */
+final class PendingChanges {
+    private final Queue<Object> changes = new ConcurrentLinkedQueue<>();
+
+    void saved(Ship ship) {
+        changes.add(ship);
+    }
+
+    void deleted(long id) {
+        changes.add(id);
+    }
+
+    /**
+     * Replays the changes recorded so far, oldest first, and forgets them.
+     */
+    void replay(Consumer<Ship> save, LongConsumer delete) {
+        for (Object change = changes.poll(); change != null; change = changes.poll()) {
+            if (change instanceof Ship) {
+                save.accept((Ship) change);
+            } else {
+                delete.accept((Long) change);
+            }
+        }
+    }
+}
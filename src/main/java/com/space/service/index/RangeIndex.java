@@ -0,0 +1,283 @@
+package com.space.service.index;
+
+import com.space.model.Ship;
+import com.space.repository.ShipRepository;
+import com.space.service.ShipChangeListener;
+import com.space.service.ShipFilter;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Sorted indexes over {@code speed}, {@code rating}, {@code crewSize} and the production day that
+ * resolve the min/max and after/before filters to id lists in O(log n + k). Of several range
+ * conditions only the most selective one is read; the memory engine, its only user, checks the
+ * others on its rows. Readers take no lock: the sets are concurrent skip lists, and a change inserts
+ * a ship's new key before it removes the old one, so a reader finds the ship under at least one of
+ * them. Writers are serialized on the monitor of the index and never wait for the database.
+ * Enabled with {@code ship.rangeIndex.enabled}.
+ */
+public class RangeIndex implements ShipChangeListener, InitializingBean {
+    private final static int SPEED = 0;
+    private final static int RATING = 1;
+    private final static int CREW_SIZE = 2;
+    private final static int PROD_DAY = 3;
+    private final static int FIELDS = 4;
+
+    private final ShipRepository shipRepository;
+    private final boolean enabled;
+    private final Object rebuildLock = new Object();
+    private volatile Fields fields = new Fields();
+    // changes to replay onto the indexes being rebuilt, guarded by the monitor of the index
+    private PendingChanges pending;
+
+    public RangeIndex(ShipRepository shipRepository, boolean enabled) {
+        this.shipRepository = shipRepository;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    /**
+     * Builds new indexes from the database while queries and writers keep using the old ones, then replays
+     * the changes published meanwhile onto them and swaps them in. Only the replay holds the monitor.
+     */
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            PendingChanges changes = new PendingChanges();
+            synchronized (this) {
+                pending = changes;
+            }
+            Fields rebuilt = new Fields();
+            shipRepository.forEachShip(rebuilt::put);
+            synchronized (this) {
+                changes.replay(rebuilt::put, rebuilt::remove);
+                fields = rebuilt;
+                pending = null;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void shipSaved(Ship ship) {
+        if (!enabled) {
+            return;
+        }
+        fields.put(ship);
+        if (pending != null) {
+            pending.saved(ship);
+        }
+    }
+
+    @Override
+    public synchronized void shipDeleted(long id) {
+        if (!enabled) {
+            return;
+        }
+        fields.remove(id);
+        if (pending != null) {
+            pending.deleted(id);
+        }
+    }
+
+    @Override
+    public void shipsReloaded() {
+        rebuild();
+    }
+
+    /**
+     * Returns the sorted ids among {@code candidates} (or among all ships if it is {@code null}) that
+     * satisfy the most selective range condition of the filter, provided that condition matches at
+     * most {@code maxCandidates} ships and no more than there are candidates. Otherwise, and when the
+     * index is disabled or the filter has no range condition, returns {@code candidates} unchanged.
+     */
+    public long[] find(ShipFilter filter, long[] candidates, int maxCandidates) {
+        if (!enabled) {
+            return candidates;
+        }
+        return find(fields, filter, candidates, maxCandidates);
+    }
+
+    private static long[] find(Fields current, ShipFilter filter, long[] candidates, int maxCandidates) {
+        List<NavigableSet<Key>> ranges = new ArrayList<>(FIELDS);
+        if (filter.getMinSpeed() != null || filter.getMaxSpeed() != null) {
+            ranges.add(current.range(SPEED, filter.getMinSpeed(), filter.getMaxSpeed()));
+        }
+        if (filter.getMinRating() != null || filter.getMaxRating() != null) {
+            ranges.add(current.range(RATING, filter.getMinRating(), filter.getMaxRating()));
+        }
+        if (filter.getMinCrewSize() != null || filter.getMaxCrewSize() != null) {
+            ranges.add(current.range(CREW_SIZE, filter.getMinCrewSize(), filter.getMaxCrewSize()));
+        }
+        if (filter.getAfter() != null || filter.getBefore() != null) {
+            ranges.add(current.range(PROD_DAY,
+                    filter.getAfter() != null ? (double) ShipColumns.firstDayFrom(filter.getAfter()) : null,
+                    filter.getBefore() != null ? (double) ShipColumns.toEpochDay(filter.getBefore()) : null));
+        }
+        if (ranges.isEmpty()) {
+            return candidates;
+        }
+
+        int limit = candidates != null ? Math.min(candidates.length, maxCandidates) : maxCandidates;
+        NavigableSet<Key> smallest = smallest(ranges, limit);
+        if (smallest == null) {
+            return candidates;
+        }
+
+        long[] ids = new long[16];
+        int size = 0;
+        for (Key key : smallest) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = key.id;
+        }
+        ids = distinct(ids, size);
+        return candidates != null ? intersect(ids, candidates) : ids;
+    }
+
+    /**
+     * Sorts the first {@code size} ids and drops repeats: a reader may meet a ship under its old and its
+     * new key while the ship is updated.
+     */
+    private static long[] distinct(long[] ids, int size) {
+        Arrays.sort(ids, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, distinct);
+    }
+
+    /**
+     * Walks all ranges in lockstep and returns the first one to end, which is the smallest, as long as
+     * it holds at most {@code limit} keys; costs O(ranges * k) for the smallest range's size k.
+     */
+    private static NavigableSet<Key> smallest(List<NavigableSet<Key>> ranges, int limit) {
+        List<Iterator<Key>> iterators = new ArrayList<>(ranges.size());
+        for (NavigableSet<Key> range : ranges) {
+            iterators.add(range.iterator());
+        }
+        for (int step = 0; step <= limit; step++) {
+            for (int i = 0; i < iterators.size(); i++) {
+                if (!iterators.get(i).hasNext()) {
+                    return ranges.get(i);
+                }
+                iterators.get(i).next();
+            }
+        }
+        return null;
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * One concurrent sorted set per field, read without locks, plus the indexed values of every ship,
+     * which only writers use to find a ship's keys again.
+     */
+    private static final class Fields {
+        private final List<NavigableSet<Key>> sets = new ArrayList<>(FIELDS);
+        private final ShipRecords<double[]> values = new ShipRecords<>();
+
+        private Fields() {
+            for (int field = 0; field < FIELDS; field++) {
+                sets.add(new ConcurrentSkipListSet<>());
+            }
+        }
+
+        private NavigableSet<Key> range(int field, Double min, Double max) {
+            return sets.get(field).subSet(
+                    new Key(min != null ? min : Double.NEGATIVE_INFINITY, Long.MIN_VALUE), true,
+                    new Key(max != null ? max : Double.POSITIVE_INFINITY, Long.MAX_VALUE), true);
+        }
+
+        private NavigableSet<Key> range(int field, Integer min, Integer max) {
+            return range(field, min != null ? (double) min : null, max != null ? (double) max : null);
+        }
+
+        private void put(Ship ship) {
+            long id = ship.getId();
+            double[] shipValues = {
+                    ship.getSpeed() != null ? ship.getSpeed() : Double.NaN,
+                    ship.getRating() != null ? ship.getRating() : Double.NaN,
+                    ship.getCrewSize() != null ? ship.getCrewSize() : Double.NaN,
+                    ship.getProdDate() != null ? ShipColumns.toEpochDay(ship.getProdDate().getTime()) : Double.NaN
+            };
+
+            double[] old = values.get(id);
+
+            // a null value matches no range, so it is left out of the set; the new key goes in before
+            // the old one goes out
+            for (int field = 0; field < FIELDS; field++) {
+                boolean changed = old == null || Double.compare(old[field], shipValues[field]) != 0;
+                if (changed && !Double.isNaN(shipValues[field])) {
+                    sets.get(field).add(new Key(shipValues[field], id));
+                }
+            }
+            if (old != null) {
+                for (int field = 0; field < FIELDS; field++) {
+                    if (Double.compare(old[field], shipValues[field]) != 0 && !Double.isNaN(old[field])) {
+                        sets.get(field).remove(new Key(old[field], id));
+                    }
+                }
+            }
+            values.put(id, shipValues);
+        }
+
+        private void remove(long id) {
+            double[] old = values.remove(id);
+            if (old == null) {
+                return;
+            }
+            for (int field = 0; field < FIELDS; field++) {
+                if (!Double.isNaN(old[field])) {
+                    sets.get(field).remove(new Key(old[field], id));
+                }
+            }
+        }
+    }
+
+    private static final class Key implements Comparable<Key> {
+        private final double value;
+        private final long id;
+
+        private Key(double value, long id) {
+            this.value = value;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = Double.compare(value, other.value);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.space.service.index;
+
+import com.space.service.ShipFilter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link ShipFilter} compiled against {@link ShipColumns}: bounds become primitives,
+ * the date range becomes epoch days and the planet substring is resolved once per
+ * dictionary entry instead of once per row. Only the given conditions are checked, in the
+ * order of their selectivity on a sample of the rows, so most rows are rejected by the first one.
+ */
+final class RowFilter {
+    private final static int SHIP_TYPE = 0;
+    private final static int USED = 1;
+    private final static int DATE = 2;
+    private final static int SPEED = 3;
+    private final static int CREW_SIZE = 4;
+    private final static int RATING = 5;
+    private final static int PLANET = 6;
+    private final static int NAME = 7;
+    private final static int MAX_SAMPLES = 256;
+
+    private final String name;
+    private final boolean[] planetMatches;
+    private final int shipType;
+    private final boolean used;
+    private final int minDay;
+    private final int maxDay;
+    private final double minSpeed;
+    private final double maxSpeed;
+    private final int minCrewSize;
+    private final int maxCrewSize;
+    private final double minRating;
+    private final double maxRating;
+    private final int[] checks;
+
+    private RowFilter(ShipFilter filter, ShipColumns columns) {
+        name = filter.getName();
+        planetMatches = filter.getPlanet() != null ? matchPlanets(columns.planets(), filter.getPlanet()) : null;
+        shipType = filter.getShipType() != null ? filter.getShipType().ordinal() : -1;
+        boolean filterUsed = filter.getUsed() != null;
+        used = filterUsed && filter.getUsed();
+        boolean filterDate = filter.getAfter() != null || filter.getBefore() != null;
+        minDay = filter.getAfter() != null ? ShipColumns.firstDayFrom(filter.getAfter()) : Integer.MIN_VALUE + 1;
+        maxDay = filter.getBefore() != null ? ShipColumns.toEpochDay(filter.getBefore()) : Integer.MAX_VALUE;
+        boolean filterSpeed = filter.getMinSpeed() != null || filter.getMaxSpeed() != null;
+        minSpeed = filter.getMinSpeed() != null ? filter.getMinSpeed() : Double.NEGATIVE_INFINITY;
+        maxSpeed = filter.getMaxSpeed() != null ? filter.getMaxSpeed() : Double.POSITIVE_INFINITY;
+        boolean filterCrewSize = filter.getMinCrewSize() != null || filter.getMaxCrewSize() != null;
+        minCrewSize = filter.getMinCrewSize() != null ? filter.getMinCrewSize() : Integer.MIN_VALUE + 1;
+        maxCrewSize = filter.getMaxCrewSize() != null ? filter.getMaxCrewSize() : Integer.MAX_VALUE;
+        boolean filterRating = filter.getMinRating() != null || filter.getMaxRating() != null;
+        minRating = filter.getMinRating() != null ? filter.getMinRating() : Double.NEGATIVE_INFINITY;
+        maxRating = filter.getMaxRating() != null ? filter.getMaxRating() : Double.POSITIVE_INFINITY;
+
+        int[] given = new int[NAME + 1];
+        int count = 0;
+        if (shipType >= 0) {
+            given[count++] = SHIP_TYPE;
+        }
+        if (filterUsed) {
+            given[count++] = USED;
+        }
+        if (filterDate) {
+            given[count++] = DATE;
+        }
+        if (filterSpeed) {
+            given[count++] = SPEED;
+        }
+        if (filterCrewSize) {
+            given[count++] = CREW_SIZE;
+        }
+        if (filterRating) {
+            given[count++] = RATING;
+        }
+        if (planetMatches != null) {
+            given[count++] = PLANET;
+        }
+        if (name != null) {
+            given[count++] = NAME;
+        }
+        checks = orderBySelectivity(Arrays.copyOf(given, count), columns);
+    }
+
+    static RowFilter compile(ShipFilter filter, ShipColumns columns) {
+        return new RowFilter(filter, columns);
+    }
+
+    boolean matches(ShipColumns columns, int row) {
+        for (int check : checks) {
+            if (!matches(check, columns, row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matches(int check, ShipColumns columns, int row) {
+        switch (check) {
+            case SHIP_TYPE:
+                return columns.shipType(row) == shipType;
+            case USED:
+                return columns.isUsed(row) == used;
+            case DATE:
+                int day = columns.prodDay(row);
+                return day >= minDay && day <= maxDay;
+            case SPEED:
+                double speed = columns.speed(row);
+                return speed >= minSpeed && speed <= maxSpeed;
+            case CREW_SIZE:
+                int crewSize = columns.crewSize(row);
+                return crewSize >= minCrewSize && crewSize <= maxCrewSize;
+            case RATING:
+                double rating = columns.rating(row);
+                return rating >= minRating && rating <= maxRating;
+            case PLANET:
+                int code = columns.planetCode(row);
+                return code >= 0 && planetMatches[code];
+            default:
+                String shipName = columns.name(row);
+                return shipName != null && shipName.contains(name);
+        }
+    }
+
+    /**
+     * Orders the given checks by the share of sample rows they reject, most selective first; ties keep
+     * the given order, which lists the cheap checks first. The name check always runs last.
+     */
+    private int[] orderBySelectivity(int[] candidates, ShipColumns columns) {
+        int size = columns.size();
+        int samples = Math.min(size, MAX_SAMPLES);
+        long[] ranked = new long[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            int passed = 0;
+            if (candidates[i] != NAME) {
+                for (int sample = 0; sample < samples; sample++) {
+                    if (matches(candidates[i], columns, (int) ((long) sample * size / samples))) {
+                        passed++;
+                    }
+                }
+            } else {
+                passed = samples + 1;
+            }
+            ranked[i] = (long) passed << 32 | i;
+        }
+        Arrays.sort(ranked);
+
+        int[] ordered = new int[candidates.length];
+        for (int i = 0; i < ordered.length; i++) {
+            ordered[i] = candidates[(int) ranked[i]];
+        }
+        return ordered;
+    }
+
+    private static boolean[] matchPlanets(List<String> planets, String planet) {
+        boolean[] matches = new boolean[planets.size()];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = planets.get(code).contains(planet);
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,253 @@
+package com.space.service.index;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.repository.ShipRepository;
+import com.space.service.ShipChangeListener;
+import com.space.service.ShipStatistics;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running sums over the whole ship table, kept per (shipType, planet, isUsed) cell and updated on
+ * every change, so the unfiltered statistics never touch the database. Every sum is a {@link LongAdder}
+ * and each ship's last contribution is swapped atomically in a concurrent map, so writers of different
+ * ships never wait for each other; speed and rating are summed in millionths, so taking a value back is
+ * exact. Readers retry until no write overlapped their pass, like a seqlock, and so never see a
+ * half-applied change. Emptied cells stay until the next rebuild and are left out of the statistics.
+ * Used with the memory engine; enabled with {@code ship.aggregates.enabled}.
+ */
+public class ShipAggregates implements ShipChangeListener, InitializingBean {
+    private final static double SCALE = 1_000_000.0;
+    private final static long NO_VALUE = Long.MIN_VALUE;
+
+    private final ShipRepository shipRepository;
+    private final boolean enabled;
+    private final LongAdder writesStarted = new LongAdder();
+    private final LongAdder writesFinished = new LongAdder();
+    private volatile Totals totals = new Totals();
+    private volatile PendingChanges pending;
+
+    public ShipAggregates(ShipRepository shipRepository, boolean enabled) {
+        this.shipRepository = shipRepository;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sums the table into new totals while writers keep updating the current ones, then swaps them in and
+     * replays the changes published meanwhile. Rebuilds are serialized; writers never take the monitor.
+     */
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        PendingChanges changes = new PendingChanges();
+        pending = changes;
+        Totals rebuilt = new Totals();
+        shipRepository.forEachShip(rebuilt::save);
+        // the swap and the replay count as one write, so no reader takes the totals half replayed
+        writesStarted.increment();
+        try {
+            totals = rebuilt;
+            changes.replay(rebuilt::save, rebuilt::delete);
+            pending = null;
+        } finally {
+            writesFinished.increment();
+        }
+    }
+
+    @Override
+    public void shipSaved(Ship ship) {
+        if (!enabled) {
+            return;
+        }
+        // recorded before it is applied, so a rebuild either replays it or has already swapped its totals in
+        PendingChanges changes = pending;
+        if (changes != null) {
+            changes.saved(ship);
+        }
+        writesStarted.increment();
+        try {
+            totals.save(ship);
+        } finally {
+            writesFinished.increment();
+        }
+    }
+
+    @Override
+    public void shipDeleted(long id) {
+        if (!enabled) {
+            return;
+        }
+        PendingChanges changes = pending;
+        if (changes != null) {
+            changes.deleted(id);
+        }
+        writesStarted.increment();
+        try {
+            totals.delete(id);
+        } finally {
+            writesFinished.increment();
+        }
+    }
+
+    @Override
+    public void shipsReloaded() {
+        rebuild();
+    }
+
+    public ShipStatistics getStatistics() {
+        while (true) {
+            // every write counted as finished before the pass started, and none started after it: the pass saw
+            // no write in progress
+            long finished = writesFinished.sum();
+            ShipStatistics statistics = totals.toStatistics();
+            if (writesStarted.sum() == finished) {
+                return statistics;
+            }
+            Thread.yield();
+        }
+    }
+
+    private static final class Totals {
+        private final Map<CellKey, Cell> cells = new ConcurrentHashMap<>();
+        private final Map<Long, Contribution> contributions = new ConcurrentHashMap<>();
+
+        /**
+         * Takes back the ship's last contribution and adds the new one, atomically for the ship; the
+         * contribution is overwritten in place.
+         */
+        private void save(Ship ship) {
+            contributions.compute(ship.getId(), (id, contribution) -> {
+                if (contribution == null) {
+                    contribution = new Contribution();
+                } else {
+                    contribution.apply(-1);
+                }
+                contribution.set(cellOf(ship, contribution.cell), ship);
+                contribution.apply(1);
+                return contribution;
+            });
+        }
+
+        private void delete(long id) {
+            contributions.computeIfPresent(id, (key, contribution) -> {
+                contribution.apply(-1);
+                return null;
+            });
+        }
+
+        private Cell cellOf(Ship ship, Cell current) {
+            if (current != null && current.key.matches(ship)) {
+                return current;
+            }
+            return cells.computeIfAbsent(new CellKey(ship.getShipType(), ship.getPlanet(), ship.getUsed()),
+                    Cell::new);
+        }
+
+        private ShipStatistics toStatistics() {
+            ShipStatistics statistics = new ShipStatistics();
+            cells.forEach((key, cell) -> statistics.add(key.shipType, key.planet, key.isUsed,
+                    cell.count.sum(),
+                    cell.speedSum.sum() / SCALE, cell.speedCount.sum(),
+                    cell.ratingSum.sum() / SCALE, cell.ratingCount.sum(),
+                    cell.crewSizeSum.sum(), cell.crewSizeCount.sum()));
+            return statistics;
+        }
+    }
+
+    /**
+     * The values a ship added to its cell, speed and rating in millionths; {@code NO_VALUE} marks a missing one.
+     */
+    private static final class Contribution {
+        private Cell cell;
+        private long speed;
+        private long rating;
+        private long crewSize;
+
+        private void set(Cell cell, Ship ship) {
+            this.cell = cell;
+            speed = ship.getSpeed() != null ? Math.round(ship.getSpeed() * SCALE) : NO_VALUE;
+            rating = ship.getRating() != null ? Math.round(ship.getRating() * SCALE) : NO_VALUE;
+            crewSize = ship.getCrewSize() != null ? ship.getCrewSize() : NO_VALUE;
+        }
+
+        /**
+         * Adds the contribution to its cell for {@code sign} 1, takes it back for -1.
+         */
+        private void apply(int sign) {
+            cell.count.add(sign);
+            if (speed != NO_VALUE) {
+                cell.speedSum.add(sign * speed);
+                cell.speedCount.add(sign);
+            }
+            if (rating != NO_VALUE) {
+                cell.ratingSum.add(sign * rating);
+                cell.ratingCount.add(sign);
+            }
+            if (crewSize != NO_VALUE) {
+                cell.crewSizeSum.add(sign * crewSize);
+                cell.crewSizeCount.add(sign);
+            }
+        }
+    }
+
+    private static final class CellKey {
+        private final ShipType shipType;
+        private final String planet;
+        private final Boolean isUsed;
+
+        private CellKey(ShipType shipType, String planet, Boolean isUsed) {
+            this.shipType = shipType;
+            this.planet = planet;
+            this.isUsed = isUsed;
+        }
+
+        private boolean matches(Ship ship) {
+            return shipType == ship.getShipType() && Objects.equals(planet, ship.getPlanet())
+                    && Objects.equals(isUsed, ship.getUsed());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CellKey)) return false;
+            CellKey key = (CellKey) o;
+            return shipType == key.shipType && Objects.equals(planet, key.planet)
+                    && Objects.equals(isUsed, key.isUsed);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(shipType, planet, isUsed);
+        }
+    }
+
+    private static final class Cell {
+        private final CellKey key;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder speedSum = new LongAdder();
+        private final LongAdder speedCount = new LongAdder();
+        private final LongAdder ratingSum = new LongAdder();
+        private final LongAdder ratingCount = new LongAdder();
+        private final LongAdder crewSizeSum = new LongAdder();
+        private final LongAdder crewSizeCount = new LongAdder();
+
+        private Cell(CellKey key) {
+            this.key = key;
+        }
+    }
+}
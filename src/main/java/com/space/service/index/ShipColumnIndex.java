@@ -0,0 +1,412 @@
+package com.space.service.index;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.repository.ShipRepository;
+import com.space.service.ShipCursor;
+import com.space.service.ShipFilter;
+import com.space.service.ShipQueryEngine;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Query engine that keeps the whole fleet in {@link ShipColumns} and answers filters, orders
+ * and pages by one pass over primitive columns, split over the fork-join pool for large tables.
+ * With {@code ship.memory.orderViews} unselective pages are read off views kept sorted by every
+ * {@link ShipOrder} instead. Loaded from the database on startup and kept in
+ * sync through the {@link com.space.service.ShipChangeListener} callbacks; enabled with
+ * {@code ship.query.engine=memory}.
+ */
+public class ShipColumnIndex implements ShipQueryEngine, InitializingBean {
+    private final ShipRepository shipRepository;
+    private final TrigramIndex trigramIndex;
+    private final CategoryIndex categoryIndex;
+    private final RangeIndex rangeIndex;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ShipColumns columns = new ShipColumns();
+    private final int parallelThreshold;
+    private final OrderViews orderViews;
+    private final static int LEAVES_PER_THREAD = 4;
+    private final static int MAX_CANDIDATE_SHARE = 4;
+
+    public ShipColumnIndex(ShipRepository shipRepository, TrigramIndex trigramIndex, CategoryIndex categoryIndex,
+                           RangeIndex rangeIndex, int parallelThreshold, boolean orderViews) {
+        this.shipRepository = shipRepository;
+        this.trigramIndex = trigramIndex;
+        this.categoryIndex = categoryIndex;
+        this.rangeIndex = rangeIndex;
+        this.parallelThreshold = parallelThreshold;
+        this.orderViews = orderViews ? new OrderViews() : null;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            columns.clear();
+            if (orderViews != null) {
+                orderViews.clear();
+            }
+            shipRepository.forEachShip(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipSaved(Ship ship) {
+        lock.writeLock().lock();
+        try {
+            put(ship);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipDeleted(long id) {
+        lock.writeLock().lock();
+        try {
+            int row = columns.positionOf(id);
+            if (row >= 0 && orderViews != null) {
+                orderViews.remove(columns, row);
+            }
+            columns.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipsReloaded() {
+        rebuild();
+    }
+
+    /**
+     * Collects the matching ids and sorts them as primitives, which is cheaper than selecting an
+     * unbounded page through {@link TopRows}.
+     */
+    @Override
+    public List<Ship> findAll(ShipFilter filter) {
+        long[] candidates = candidates(filter);
+
+        lock.readLock().lock();
+        try {
+            RowFilter rowFilter = RowFilter.compile(filter, columns);
+            long[] ids;
+            if (isParallel(candidates)) {
+                ids = ForkJoinPool.commonPool().invoke(new CollectTask(rowFilter, 0, columns.size(), leafSize()));
+            } else {
+                IdBuffer buffer = new IdBuffer();
+                forEachMatch(candidates, row -> rowFilter.matches(columns, row), buffer::add);
+                ids = buffer.toArray();
+            }
+            Arrays.sort(ids);
+
+            List<Ship> ships = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                ships.add(columns.toShip(columns.positionOf(id)));
+            }
+            return ships;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Ship> findSorted(ShipFilter filter, ShipOrder order, ShipCursor after, long offset, int limit) {
+        int selected = (int) Math.min(offset + limit, Integer.MAX_VALUE);
+
+        long[] candidates = candidates(filter);
+
+        lock.readLock().lock();
+        try {
+            RowFilter rowFilter = RowFilter.compile(filter, columns);
+            double afterKey = after != null ? cursorKey(after) : 0;
+            IntPredicate accepted = after == null
+                    ? row -> rowFilter.matches(columns, row)
+                    : row -> rowFilter.matches(columns, row) && isAfter(row, order, afterKey, after.getId());
+
+            int[] rows = candidates == null && orderViews != null
+                    ? walkOrder(rowFilter, order, after, afterKey, selected)
+                    : null;
+            if (rows == null && isParallel(candidates)) {
+                rows = ForkJoinPool.commonPool().invoke(
+                        new SelectTask(accepted, order, selected, 0, columns.size(), leafSize()));
+            } else if (rows == null) {
+                TopRows topRows = new TopRows(columns, order, selected);
+                forEachMatch(candidates, accepted, topRows::offer);
+                rows = topRows.sorted();
+            }
+
+            List<Ship> ships = new ArrayList<>(Math.max(0, (int) Math.min(rows.length - offset, limit)));
+            for (long i = offset; i < rows.length; i++) {
+                ships.add(columns.toShip(rows[(int) i]));
+            }
+            return ships;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long count(ShipFilter filter) {
+        long count = categoryIndex.count(filter);
+        if (count >= 0) {
+            return count;
+        }
+        long[] candidates = candidates(filter);
+
+        lock.readLock().lock();
+        try {
+            RowFilter rowFilter = RowFilter.compile(filter, columns);
+            if (isParallel(candidates)) {
+                return ForkJoinPool.commonPool().invoke(new CountTask(rowFilter, 0, columns.size(), leafSize()));
+            }
+            long[] matches = new long[1];
+            forEachMatch(candidates, row -> rowFilter.matches(columns, row), row -> matches[0]++);
+            return matches[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visits the accepted rows, restricted to the trigram candidates when there are any.
+     * Must be called under the read lock.
+     */
+    private void forEachMatch(long[] candidates, IntPredicate accepted, IntConsumer action) {
+        if (candidates != null) {
+            for (long id : candidates) {
+                int row = columns.positionOf(id);
+                if (row >= 0 && accepted.test(row)) {
+                    action.accept(row);
+                }
+            }
+        } else {
+            for (int row = 0, size = columns.size(); row < size; row++) {
+                if (accepted.test(row)) {
+                    action.accept(row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the first {@code selected} matching rows off the order view, starting after the cursor. Gives
+     * up and returns {@code null} when that takes more than a quarter of the table in non-matching rows,
+     * i.e. when the filter is selective enough that scanning and selecting is cheaper.
+     */
+    private int[] walkOrder(RowFilter rowFilter, ShipOrder order, ShipCursor after, double afterKey, int selected) {
+        Iterable<OrderViews.Key> view = after != null
+                ? orderViews.viewAfter(order, afterKey, after.getId())
+                : orderViews.view(order);
+        int maxSkipped = columns.size() / MAX_CANDIDATE_SHARE;
+        int[] rows = new int[Math.min(selected, columns.size())];
+        int size = 0;
+        int skipped = 0;
+        for (OrderViews.Key key : view) {
+            if (size == rows.length) {
+                break;
+            }
+            int row = columns.positionOf(key.id());
+            if (rowFilter.matches(columns, row)) {
+                rows[size++] = row;
+            } else if (++skipped > maxSkipped) {
+                return null;
+            }
+        }
+        return size == rows.length ? rows : Arrays.copyOf(rows, size);
+    }
+
+    /**
+     * Ids from the trigram, bitmap and range indexes, or {@code null} for a full scan. Bitmap and range
+     * matches are only used while they are few enough that looking up their rows beats scanning the table.
+     */
+    private long[] candidates(ShipFilter filter) {
+        int maxCandidates = columns.size() / MAX_CANDIDATE_SHARE;
+        long[] trigramIds = trigramIndex.find(filter.getName(), filter.getPlanet());
+        long[] ids = rangeIndex.find(filter, categoryIndex.find(filter, trigramIds), maxCandidates);
+        return trigramIds == null && ids != null && ids.length > maxCandidates ? null : ids;
+    }
+
+    /**
+     * Full scans of at least {@code parallelThreshold} rows are split over the common fork-join pool.
+     */
+    private boolean isParallel(long[] candidates) {
+        return candidates == null && parallelThreshold > 0 && columns.size() >= parallelThreshold;
+    }
+
+    private int leafSize() {
+        return Math.max(1, columns.size() / (ForkJoinPool.getCommonPoolParallelism() * LEAVES_PER_THREAD));
+    }
+
+    private void put(Ship ship) {
+        if (orderViews == null) {
+            columns.put(ship);
+            return;
+        }
+        int row = columns.positionOf(ship.getId());
+        if (row >= 0) {
+            orderViews.remove(columns, row);
+        }
+        columns.put(ship);
+        orderViews.add(columns, columns.positionOf(ship.getId()));
+    }
+
+    private boolean isAfter(int row, ShipOrder order, double afterKey, long afterId) {
+        int result = Double.compare(TopRows.key(columns, order, row), afterKey);
+        return result > 0 || result == 0 && columns.id(row) > afterId;
+    }
+
+    /**
+     * Selects the first {@code limit} accepted rows of {@code [from, to)}. The caller holds the read lock
+     * for the whole invocation, so the workers see a stable table.
+     */
+    private class SelectTask extends RecursiveTask<int[]> {
+        private final IntPredicate accepted;
+        private final ShipOrder order;
+        private final int limit;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        private SelectTask(IntPredicate accepted, ShipOrder order, int limit, int from, int to, int leafSize) {
+            this.accepted = accepted;
+            this.order = order;
+            this.limit = limit;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= leafSize) {
+                TopRows topRows = new TopRows(columns, order, limit);
+                for (int row = from; row < to; row++) {
+                    if (accepted.test(row)) {
+                        topRows.offer(row);
+                    }
+                }
+                return topRows.sorted();
+            }
+            int middle = (from + to) >>> 1;
+            SelectTask left = new SelectTask(accepted, order, limit, from, middle, leafSize);
+            left.fork();
+            int[] right = new SelectTask(accepted, order, limit, middle, to, leafSize).compute();
+            return TopRows.merge(columns, order, left.join(), right, limit);
+        }
+    }
+
+    private class CollectTask extends RecursiveTask<long[]> {
+        private final RowFilter rowFilter;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        private CollectTask(RowFilter rowFilter, int from, int to, int leafSize) {
+            this.rowFilter = rowFilter;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= leafSize) {
+                IdBuffer buffer = new IdBuffer();
+                for (int row = from; row < to; row++) {
+                    if (rowFilter.matches(columns, row)) {
+                        buffer.add(row);
+                    }
+                }
+                return buffer.toArray();
+            }
+            int middle = (from + to) >>> 1;
+            CollectTask left = new CollectTask(rowFilter, from, middle, leafSize);
+            left.fork();
+            long[] right = new CollectTask(rowFilter, middle, to, leafSize).compute();
+            long[] ids = left.join();
+            long[] joined = Arrays.copyOf(ids, ids.length + right.length);
+            System.arraycopy(right, 0, joined, ids.length, right.length);
+            return joined;
+        }
+    }
+
+    /**
+     * Ids of the rows added, in the order they were added.
+     */
+    private class IdBuffer {
+        private long[] ids = new long[64];
+        private int size;
+
+        private void add(int row) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = columns.id(row);
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+
+    private class CountTask extends RecursiveTask<Long> {
+        private final RowFilter rowFilter;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        private CountTask(RowFilter rowFilter, int from, int to, int leafSize) {
+            this.rowFilter = rowFilter;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= leafSize) {
+                long count = 0;
+                for (int row = from; row < to; row++) {
+                    if (rowFilter.matches(columns, row)) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(rowFilter, from, middle, leafSize);
+            left.fork();
+            long right = new CountTask(rowFilter, middle, to, leafSize).compute();
+            return left.join() + right;
+        }
+    }
+
+    private static double cursorKey(ShipCursor cursor) {
+        switch (cursor.getOrder()) {
+            case SPEED:
+            case RATING:
+                return (Double) cursor.getKey();
+            case DATE:
+                return ShipColumns.toEpochDay((Long) cursor.getKey());
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.space.service.index;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Struct-of-arrays copy of the ship table: one primitive array per attribute, indexed by row
+ * position. Deleting a ship moves the last row into its position, so rows stay dense but
+ * are not kept in id order. Not thread-safe; {@link ShipColumnIndex} guards access.
+ */
+final class ShipColumns {
+    private final static int INITIAL_CAPACITY = 1024;
+    private final static ShipType[] SHIP_TYPES = ShipType.values();
+    private final static byte NO_SHIP_TYPE = -1;
+
+    private int size;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] planetCodes = new int[INITIAL_CAPACITY];
+    private byte[] shipTypes = new byte[INITIAL_CAPACITY];
+    private int[] prodDays = new int[INITIAL_CAPACITY];
+    private final BitSet used = new BitSet(INITIAL_CAPACITY);
+    private double[] speeds = new double[INITIAL_CAPACITY];
+    private int[] crewSizes = new int[INITIAL_CAPACITY];
+    private double[] ratings = new double[INITIAL_CAPACITY];
+
+    private final List<String> planets = new ArrayList<>();
+    private final Map<String, Integer> planetCodeByName = new HashMap<>();
+    private final LongIntHashMap positions = new LongIntHashMap();
+
+    int size() {
+        return size;
+    }
+
+    int positionOf(long id) {
+        return positions.get(id);
+    }
+
+    void put(Ship ship) {
+        int position = positions.get(ship.getId());
+        if (position < 0) {
+            if (size == ids.length) {
+                grow();
+            }
+            position = size++;
+            positions.put(ship.getId(), position);
+        }
+
+        ids[position] = ship.getId();
+        names[position] = ship.getName();
+        planetCodes[position] = encodePlanet(ship.getPlanet());
+        shipTypes[position] = ship.getShipType() != null ? (byte) ship.getShipType().ordinal() : NO_SHIP_TYPE;
+        prodDays[position] = ship.getProdDate() != null ? toEpochDay(ship.getProdDate().getTime()) : Integer.MIN_VALUE;
+        used.set(position, Boolean.TRUE.equals(ship.getUsed()));
+        speeds[position] = ship.getSpeed() != null ? ship.getSpeed() : Double.NaN;
+        crewSizes[position] = ship.getCrewSize() != null ? ship.getCrewSize() : Integer.MIN_VALUE;
+        ratings[position] = ship.getRating() != null ? ship.getRating() : Double.NaN;
+    }
+
+    boolean remove(long id) {
+        int position = positions.remove(id);
+        if (position < 0) {
+            return false;
+        }
+
+        int last = --size;
+        if (position != last) {
+            ids[position] = ids[last];
+            names[position] = names[last];
+            planetCodes[position] = planetCodes[last];
+            shipTypes[position] = shipTypes[last];
+            prodDays[position] = prodDays[last];
+            used.set(position, used.get(last));
+            speeds[position] = speeds[last];
+            crewSizes[position] = crewSizes[last];
+            ratings[position] = ratings[last];
+            positions.put(ids[position], position);
+        }
+        names[last] = null;
+        used.clear(last);
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(names, 0, size, null);
+        used.clear();
+        positions.clear();
+        size = 0;
+    }
+
+    Ship toShip(int position) {
+        Ship ship = new Ship();
+        ship.setId(ids[position]);
+        ship.setName(names[position]);
+        ship.setPlanet(planetCodes[position] >= 0 ? planets.get(planetCodes[position]) : null);
+        ship.setShipType(shipTypes[position] != NO_SHIP_TYPE ? SHIP_TYPES[shipTypes[position]] : null);
+        ship.setProdDate(prodDays[position] != Integer.MIN_VALUE ? new Date(toMillis(prodDays[position])) : null);
+        ship.setUsed(used.get(position));
+        ship.setSpeed(Double.isNaN(speeds[position]) ? null : speeds[position]);
+        ship.setCrewSize(crewSizes[position] != Integer.MIN_VALUE ? crewSizes[position] : null);
+        ship.setRating(Double.isNaN(ratings[position]) ? null : ratings[position]);
+        return ship;
+    }
+
+    long id(int position) {
+        return ids[position];
+    }
+
+    String name(int position) {
+        return names[position];
+    }
+
+    int planetCode(int position) {
+        return planetCodes[position];
+    }
+
+    int shipType(int position) {
+        return shipTypes[position];
+    }
+
+    int prodDay(int position) {
+        return prodDays[position];
+    }
+
+    boolean isUsed(int position) {
+        return used.get(position);
+    }
+
+    double speed(int position) {
+        return speeds[position];
+    }
+
+    int crewSize(int position) {
+        return crewSizes[position];
+    }
+
+    double rating(int position) {
+        return ratings[position];
+    }
+
+    /**
+     * Planet dictionary; the code stored per row is the index into this list.
+     */
+    List<String> planets() {
+        return planets;
+    }
+
+    /**
+     * Day the ship table stores for a production timestamp: the local calendar date.
+     */
+    static int toEpochDay(long millis) {
+        return (int) Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    static long toMillis(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * First day whose start is not earlier than the given instant, i.e. the lower bound of an {@code after} filter.
+     */
+    static int firstDayFrom(long millis) {
+        int day = toEpochDay(millis);
+        return toMillis(day) < millis ? day + 1 : day;
+    }
+
+    private int encodePlanet(String planet) {
+        if (planet == null) {
+            return -1;
+        }
+        Integer code = planetCodeByName.get(planet);
+        if (code == null) {
+            code = planets.size();
+            planets.add(planet);
+            planetCodeByName.put(planet, code);
+        }
+        return code;
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        planetCodes = Arrays.copyOf(planetCodes, capacity);
+        shipTypes = Arrays.copyOf(shipTypes, capacity);
+        prodDays = Arrays.copyOf(prodDays, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        crewSizes = Arrays.copyOf(crewSizes, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+    }
+}
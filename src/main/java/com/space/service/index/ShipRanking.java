@@ -0,0 +1,179 @@
+package com.space.service.index;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.repository.ShipRepository;
+import com.space.service.ShipChangeListener;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranks of the ships by speed, rating and production day in an {@link OrderStatisticTree} per
+ * order, kept in sync on every change. Rank 1 is the highest value, ties go to the lower id.
+ * Ships without a value for an order are not ranked in it.
+ */
+public class ShipRanking implements ShipChangeListener, InitializingBean {
+    private final static ShipOrder[] ORDERS = {ShipOrder.SPEED, ShipOrder.RATING, ShipOrder.DATE};
+
+    private final ShipRepository shipRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<ShipOrder, OrderStatisticTree> trees = new EnumMap<>(ShipOrder.class);
+
+    // ranked values of every ship, in the order of ORDERS, to find its entries again on change
+    private final ShipRecords<double[]> values = new ShipRecords<>();
+
+    public ShipRanking(ShipRepository shipRepository, boolean enabled) {
+        this.shipRepository = shipRepository;
+        this.enabled = enabled;
+        for (ShipOrder order : ORDERS) {
+            trees.put(order, new OrderStatisticTree());
+        }
+    }
+
+    /**
+     * Whether the ranks are kept at all; when not, nothing is loaded and every change is ignored.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            trees.values().forEach(OrderStatisticTree::clear);
+            values.clear();
+            shipRepository.forEachShip(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipSaved(Ship ship) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(ship.getId());
+            add(ship);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipDeleted(long id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipsReloaded() {
+        rebuild();
+    }
+
+    /**
+     * The 1-based rank of the ship, or {@code -1} if it is not ranked in this order.
+     */
+    public long rank(long id, ShipOrder order) {
+        lock.readLock().lock();
+        try {
+            double[] shipValues = values.get(id);
+            if (shipValues == null) {
+                return -1;
+            }
+            double value = shipValues[field(order)];
+            return Double.isNaN(value) ? -1 : trees.get(order).indexOf(value, id) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of ships ranked in this order.
+     */
+    public long count(ShipOrder order) {
+        lock.readLock().lock();
+        try {
+            return trees.get(order).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the {@code n} best ranked ships, best first.
+     */
+    public long[] top(ShipOrder order, int n) {
+        lock.readLock().lock();
+        try {
+            return trees.get(order).first(n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Ship ship) {
+        double[] shipValues = new double[ORDERS.length];
+        for (int field = 0; field < ORDERS.length; field++) {
+            shipValues[field] = value(ship, ORDERS[field]);
+            if (!Double.isNaN(shipValues[field])) {
+                trees.get(ORDERS[field]).insert(shipValues[field], ship.getId());
+            }
+        }
+        values.put(ship.getId(), shipValues);
+    }
+
+    private void remove(long id) {
+        double[] shipValues = values.remove(id);
+        if (shipValues == null) {
+            return;
+        }
+        for (int field = 0; field < ORDERS.length; field++) {
+            if (!Double.isNaN(shipValues[field])) {
+                trees.get(ORDERS[field]).remove(shipValues[field], id);
+            }
+        }
+    }
+
+    private static double value(Ship ship, ShipOrder order) {
+        switch (order) {
+            case SPEED:
+                return ship.getSpeed() != null ? ship.getSpeed() : Double.NaN;
+            case RATING:
+                return ship.getRating() != null ? ship.getRating() : Double.NaN;
+            default:
+                return ship.getProdDate() != null ? ShipColumns.toEpochDay(ship.getProdDate().getTime()) : Double.NaN;
+        }
+    }
+
+    private static int field(ShipOrder order) {
+        for (int field = 0; field < ORDERS.length; field++) {
+            if (ORDERS[field] == order) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Ships are not ranked by " + order);
+    }
+}
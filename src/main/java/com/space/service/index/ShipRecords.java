@@ -0,0 +1,68 @@
+package com.space.service.index;
+
+import java.util.Arrays;
+
+/**
+ * The last indexed record of every ship, of a type each index declares for itself, which the incremental
+ * indexes keep to find a ship's entries again on update or delete. Deleting a ship moves the last row
+ * into its position, so rows stay dense. Not thread-safe; the owning index guards access.
+ */
+final class ShipRecords<R> {
+    private final LongIntHashMap positions = new LongIntHashMap();
+    private long[] ids = new long[16];
+    private Object[] records = new Object[16];
+    private int size;
+
+    /**
+     * Returns the record of the ship, or {@code null} if it is absent.
+     */
+    @SuppressWarnings("unchecked")
+    R get(long id) {
+        int position = positions.get(id);
+        return position >= 0 ? (R) records[position] : null;
+    }
+
+    /**
+     * Stores the record of the ship, replacing the one stored before.
+     */
+    void put(long id, R record) {
+        int position = positions.get(id);
+        if (position < 0) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                records = Arrays.copyOf(records, size * 2);
+            }
+            position = size++;
+            ids[position] = id;
+            positions.put(id, position);
+        }
+        records[position] = record;
+    }
+
+    /**
+     * Removes the ship and returns its record, or {@code null} if it was absent.
+     */
+    @SuppressWarnings("unchecked")
+    R remove(long id) {
+        int position = positions.remove(id);
+        if (position < 0) {
+            return null;
+        }
+        R record = (R) records[position];
+
+        int last = --size;
+        if (position != last) {
+            ids[position] = ids[last];
+            records[position] = records[last];
+            positions.put(ids[position], position);
+        }
+        records[last] = null;
+        return record;
+    }
+
+    void clear() {
+        Arrays.fill(records, 0, size, null);
+        positions.clear();
+        size = 0;
+    }
+}
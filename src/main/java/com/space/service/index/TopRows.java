@@ -0,0 +1,124 @@
+package com.space.service.index;
+
+import com.space.controller.ShipOrder;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the {@code limit} smallest rows offered so far by ({@link ShipOrder} key, id) in a
+ * bounded max-heap, so a page is selected in O(n log k) without sorting every match.
+ */
+final class TopRows {
+    private final ShipColumns columns;
+    private final ShipOrder order;
+    private final int limit;
+    private int[] heap;
+    private int size;
+
+    TopRows(ShipColumns columns, ShipOrder order, int limit) {
+        this.columns = columns;
+        this.order = order;
+        this.limit = limit;
+        this.heap = new int[Math.max(1, Math.min(limit, 1024))];
+    }
+
+    void offer(int row) {
+        if (size < limit) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(limit, heap.length * 2L));
+            }
+            heap[size] = row;
+            siftUp(size++);
+        } else if (limit > 0 && compare(row, heap[0]) < 0) {
+            heap[0] = row;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * Drains the heap and returns the kept rows in ascending order.
+     */
+    int[] sorted() {
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        int[] rows = Arrays.copyOf(heap, size);
+        size = 0;
+        return rows;
+    }
+
+    /**
+     * Sort key of the row as a double; days and speeds/ratings compare exactly.
+     */
+    static double key(ShipColumns columns, ShipOrder order, int row) {
+        switch (order) {
+            case SPEED:
+                return columns.speed(row);
+            case DATE:
+                return columns.prodDay(row);
+            case RATING:
+                return columns.rating(row);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Merges two ascending row arrays into the first {@code limit} rows of both.
+     */
+    static int[] merge(ShipColumns columns, ShipOrder order, int[] a, int[] b, int limit) {
+        int[] rows = new int[Math.min(limit, a.length + b.length)];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < rows.length; k++) {
+            rows[k] = j == b.length || i < a.length && compare(columns, order, a[i], b[j]) <= 0 ? a[i++] : b[j++];
+        }
+        return rows;
+    }
+
+    static int compare(ShipColumns columns, ShipOrder order, int a, int b) {
+        int result = Double.compare(key(columns, order, a), key(columns, order, b));
+        return result != 0 ? result : Long.compare(columns.id(a), columns.id(b));
+    }
+
+    private int compare(int a, int b) {
+        return compare(columns, order, a, b);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(heap[index], heap[parent]) <= 0) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int end) {
+        while (true) {
+            int largest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < end && compare(heap[left], heap[largest]) > 0) {
+                largest = left;
+            }
+            if (right < end && compare(heap[right], heap[largest]) > 0) {
+                largest = right;
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(index, largest);
+            index = largest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int row = heap[a];
+        heap[a] = heap[b];
+        heap[b] = row;
+    }
+}
@@ -0,0 +1,97 @@
+package com.space.service.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inverted index from every three-character substring of one text attribute to the sorted ids
+ * of the ships containing it. Not thread-safe; {@link TrigramIndex} guards access.
+ */
+final class TrigramField {
+    private final static int GRAM_LENGTH = 3;
+
+    private final Map<Long, String> values = new HashMap<>();
+    private final Map<Long, LongList> postings = new HashMap<>();
+
+    void put(long id, String value) {
+        String previous = value != null ? values.put(id, value) : values.remove(id);
+        if (value != null && value.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            forEachGram(previous, gram -> {
+                LongList ids = postings.get(gram);
+                ids.remove(id);
+                if (ids.size() == 0) {
+                    postings.remove(gram);
+                }
+            });
+        }
+        if (value != null) {
+            forEachGram(value, gram -> postings.computeIfAbsent(gram, key -> new LongList()).add(id));
+        }
+    }
+
+    void remove(long id) {
+        put(id, null);
+    }
+
+    void clear() {
+        values.clear();
+        postings.clear();
+    }
+
+    /**
+     * Returns the sorted ids of ships whose value contains {@code substring}, or {@code null}
+     * if the substring is shorter than a trigram and cannot be looked up.
+     */
+    long[] find(String substring) {
+        if (substring.length() < GRAM_LENGTH) {
+            return null;
+        }
+
+        int gramCount = substring.length() - GRAM_LENGTH + 1;
+        LongList[] lists = new LongList[gramCount];
+        for (int i = 0; i < gramCount; i++) {
+            lists[i] = postings.get(gram(substring, i));
+            if (lists[i] == null) {
+                return new long[0];
+            }
+        }
+        // probe the other posting lists only for ids of the shortest one
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+
+        LongList shortest = lists[0];
+        long[] result = new long[shortest.size()];
+        int size = 0;
+        candidates:
+        for (int i = 0; i < shortest.size(); i++) {
+            long id = shortest.get(i);
+            for (int list = 1; list < lists.length; list++) {
+                if (!lists[list].contains(id)) {
+                    continue candidates;
+                }
+            }
+            // trigrams may occur in a different order or with gaps, so verify the candidate
+            if (values.get(id).contains(substring)) {
+                result[size++] = id;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static void forEachGram(String value, GramConsumer consumer) {
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            consumer.accept(gram(value, i));
+        }
+    }
+
+    private static long gram(String value, int start) {
+        return ((long) value.charAt(start) << 32) | ((long) value.charAt(start + 1) << 16) | value.charAt(start + 2);
+    }
+
+    private interface GramConsumer {
+        void accept(long gram);
+    }
+}
@@ -0,0 +1,130 @@
+package com.space.service.index;
+
+import com.space.model.Ship;
+import com.space.repository.ShipRepository;
+import com.space.service.ShipChangeListener;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram index over {@code Ship.name} and {@code Ship.planet} that resolves the substring
+ * filters to exact id sets without scanning. Matching is case-sensitive like
+ * {@link String#contains}, as in the rest of the memory engine, its only user; enabled with
+ * {@code ship.trigram.enabled}.
+ */
+public class TrigramIndex implements ShipChangeListener, InitializingBean {
+    private final ShipRepository shipRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TrigramField names = new TrigramField();
+    private final TrigramField planets = new TrigramField();
+
+    public TrigramIndex(ShipRepository shipRepository, boolean enabled) {
+        this.shipRepository = shipRepository;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            names.clear();
+            planets.clear();
+            shipRepository.forEachShip(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipSaved(Ship ship) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            index(ship);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipDeleted(long id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            names.remove(id);
+            planets.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipsReloaded() {
+        rebuild();
+    }
+
+    /**
+     * Returns the sorted ids of ships whose name contains {@code name} and whose planet contains
+     * {@code planet} (either may be {@code null}), or {@code null} if the index is disabled or
+     * cannot resolve every given substring because it is shorter than a trigram.
+     */
+    public long[] find(String name, String planet) {
+        if (!enabled || name == null && planet == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            long[] byName = null;
+            if (name != null && (byName = names.find(name)) == null) {
+                return null;
+            }
+            long[] byPlanet = null;
+            if (planet != null && (byPlanet = planets.find(planet)) == null) {
+                return null;
+            }
+            if (byName == null || byPlanet == null) {
+                return byName != null ? byName : byPlanet;
+            }
+            return intersect(byName, byPlanet);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(Ship ship) {
+        names.put(ship.getId(), ship.getName());
+        planets.put(ship.getId(), ship.getPlanet());
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
@@ -0,0 +1,29 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Gives {@code name} and {@code planet} a binary collation on MySQL, whose default {@code *_ci}
+ * collations would make the LIKE of the name and planet filters case-insensitive. The filters match
+ * case-sensitively, as {@code String.contains} did before them and as the memory engine still does.
+ * H2 compares strings case-sensitively already and has no column collations, so it is left alone.
+ */
+public class V7__Binary_name_planet_collation extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (!"MySQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE ship "
+                    + "MODIFY name VARCHAR(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NULL, "
+                    + "MODIFY planet VARCHAR(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NULL");
+        }
+    }
+}
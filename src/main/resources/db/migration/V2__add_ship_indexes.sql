@@ -0,0 +1,10 @@
+-- Secondary indexes matching the filters and orders of GET /rest/ships.
+-- InnoDB and H2 append the primary key to every secondary index, so the single-column
+-- indexes also serve the (key, id) ordering used by paging and keyset cursors.
+CREATE INDEX idx_ship_type_used ON ship (shipType, isUsed);
+CREATE INDEX idx_ship_prod_date ON ship (prodDate);
+CREATE INDEX idx_ship_speed ON ship (speed);
+CREATE INDEX idx_ship_rating ON ship (rating);
+CREATE INDEX idx_ship_crew_size ON ship (crewSize);
+CREATE INDEX idx_ship_planet ON ship (planet);
+CREATE INDEX idx_ship_name ON ship (name);
@@ -0,0 +1,14 @@
+-- Id source for Ship, read and advanced by Hibernate's table generator so that ids are known
+-- before the insert and inserts can be sent in JDBC batches. The row holds the last id handed out
+-- and is seeded with the current maximum, so existing rows keep their ids.
+CREATE TABLE IF NOT EXISTS ship_sequence
+(
+    sequence_name VARCHAR(64) NOT NULL,
+    last_val      BIGINT      NOT NULL,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO ship_sequence (sequence_name, last_val)
+SELECT 'ship', COALESCE(MAX(id), 0)
+FROM ship
+HAVING NOT EXISTS(SELECT 1 FROM ship_sequence WHERE sequence_name = 'ship');
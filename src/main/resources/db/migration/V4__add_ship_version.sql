@@ -0,0 +1,3 @@
+-- Optimistic locking: every UPDATE of a ship checks and increments its version.
+ALTER TABLE ship
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+-- Work list of the rating recomputation job. A range is marked done in the same transaction that
+-- writes its ratings, so a job interrupted by a crash resumes with the ranges still pending.
+CREATE TABLE rating_job_range
+(
+    range_start BIGINT  NOT NULL,
+    range_end   BIGINT  NOT NULL,
+    done        BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (range_start)
+);
@@ -0,0 +1,13 @@
+-- Claim of the rating recomputation job, shared by all application nodes. A node runs the job only
+-- after taking the lease of the single row with a conditional UPDATE, and renews it after every range;
+-- the lease of a node that died runs out, so another node can resume the job.
+CREATE TABLE rating_job
+(
+    id          INT         NOT NULL,
+    owner       VARCHAR(64) NULL,
+    lease_until BIGINT      NOT NULL DEFAULT 0,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO rating_job (id, owner, lease_until)
+VALUES (1, NULL, 0);
@@ -0,0 +1,6 @@
+-- Ship ids come from ship_sequence alone. An AUTO_INCREMENT insert would take MAX(id) + 1, which may
+-- lie in a block the table generator has reserved but not handed out yet, so the column loses it and
+-- an insert without an id fails instead. Loads that bypass the application must take their ids from
+-- ship_sequence: advance last_val by the number of rows and use the ids up to the new value.
+ALTER TABLE ship
+    MODIFY id BIGINT(20) NOT NULL;
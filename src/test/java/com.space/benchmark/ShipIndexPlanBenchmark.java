@@ -0,0 +1,126 @@
+package com.space.benchmark;
+
+import org.flywaydb.core.Flyway;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Prints query plans and timings of the typical ship filters before and after the index migration.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.space.benchmark.ShipIndexPlanBenchmark [-Dexec.args="rows jdbcUrl user password"]}.
+ * Defaults to 1 000 000 generated ships in an in-memory H2 database; pass a MySQL url to benchmark
+ * against an empty MySQL schema instead.
+ */
+public class ShipIndexPlanBenchmark {
+    private final static String[] PLANETS = {"Mars", "Jupiter", "Earth", "Neptune", "Mercury", "Saturn", "Venus",
+            "Uranus"};
+    private final static String[] TYPES = {"TRANSPORT", "MILITARY", "MERCHANT"};
+    private final static int RUNS = 5;
+
+    private final static String[] QUERIES = {
+            "SELECT COUNT(*) FROM ship WHERE shipType = 'MILITARY' AND isUsed = FALSE",
+            "SELECT * FROM ship WHERE prodDate BETWEEN '3010-01-01' AND '3010-03-01' ORDER BY id LIMIT 20",
+            "SELECT * FROM ship WHERE speed BETWEEN 0.30 AND 0.31 ORDER BY speed, id LIMIT 20",
+            "SELECT * FROM ship WHERE rating >= 20 ORDER BY rating, id LIMIT 20",
+            "SELECT COUNT(*) FROM ship WHERE crewSize BETWEEN 100 AND 120",
+            "SELECT * FROM ship WHERE planet LIKE 'Sat%' ORDER BY id LIMIT 20",
+            "SELECT * FROM ship WHERE name LIKE 'Ship-12345%' ORDER BY id LIMIT 20"
+    };
+
+    public static void main(String[] args) throws SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String url = args.length > 1 ? args[1] : "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE";
+        String user = args.length > 2 ? args[2] : "sa";
+        String password = args.length > 3 ? args[3] : "";
+
+        migrate(url, user, password, "1");
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            generate(connection, rows);
+            System.out.println("=== Before indexes (" + rows + " ships) ===");
+            report(connection);
+        }
+
+        migrate(url, user, password, "latest");
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            System.out.println("=== After indexes (" + rows + " ships) ===");
+            report(connection);
+        }
+    }
+
+    private static void migrate(String url, String user, String password, String target) {
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .locations("classpath:db/migration")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private static void generate(Connection connection, int rows) throws SQLException {
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO ship(name, planet, shipType, " +
+                "prodDate, isUsed, speed, crewSize, rating) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                int year = 2800 + random.nextInt(220);
+                boolean isUsed = random.nextBoolean();
+                double speed = (1 + random.nextInt(99)) / 100.0;
+                statement.setString(1, "Ship-" + i);
+                statement.setString(2, PLANETS[random.nextInt(PLANETS.length)]);
+                statement.setString(3, TYPES[random.nextInt(TYPES.length)]);
+                statement.setDate(4, Date.valueOf(year + "-" + (1 + random.nextInt(12)) + "-01"));
+                statement.setBoolean(5, isUsed);
+                statement.setDouble(6, speed);
+                statement.setInt(7, 1 + random.nextInt(9999));
+                statement.setDouble(8, Math.round(80 * speed * (isUsed ? 0.5 : 1.0) / (3019 - year + 1) * 100) / 100.0);
+                statement.addBatch();
+                if (i % 10_000 == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    private static void report(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String query : QUERIES) {
+                System.out.println(query);
+                try (ResultSet plan = statement.executeQuery("EXPLAIN " + query)) {
+                    int columns = plan.getMetaData().getColumnCount();
+                    while (plan.next()) {
+                        StringBuilder line = new StringBuilder("  plan:");
+                        for (int i = 1; i <= columns; i++) {
+                            line.append(' ').append(plan.getString(i));
+                        }
+                        System.out.println(line.toString().replaceAll("\\s+", " "));
+                    }
+                }
+
+                long[] timings = new long[RUNS];
+                for (int run = 0; run < RUNS; run++) {
+                    long start = System.nanoTime();
+                    try (ResultSet resultSet = statement.executeQuery(query)) {
+                        while (resultSet.next()) {
+                            resultSet.getObject(1);
+                        }
+                    }
+                    timings[run] = System.nanoTime() - start;
+                }
+                Arrays.sort(timings);
+                System.out.printf("  median: %.2f ms%n", timings[RUNS / 2] / 1_000_000.0);
+            }
+        }
+    }
+}
@@ -3,11 +3,13 @@ package com.space.controller;
 import com.space.config.AppConfig;
 import com.space.config.MyWebAppInit;
 import com.space.config.WebConfig;
+import com.space.service.ShipService;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlConfig;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -21,6 +23,8 @@ import org.springframework.web.context.WebApplicationContext;
 @ContextConfiguration(classes = {AppConfig.class, MyWebAppInit.class, WebConfig.class})
 @WebAppConfiguration
 @Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+// test.sql resets ship_sequence before each test, ids reserved in blocks would outlive it
+@TestPropertySource(properties = "ship.id.allocationSize=1")
 public abstract class AbstractTest {
 
     WebApplicationContext context;
@@ -34,5 +38,7 @@ public abstract class AbstractTest {
     @Before
     public void setup() {
         mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        // @Sql has just recreated the ship table, so in-memory state must be rebuilt from it
+        context.getBean(ShipService.class).resync();
     }
 }
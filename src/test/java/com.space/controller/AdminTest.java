@@ -0,0 +1,37 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class AdminTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<Map<String, Number>> typeReference = new TypeReference<Map<String, Number>>() {
+    };
+
+    //test1
+    @Test
+    public void getPoolMetricsTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        String contentAsString = mockMvc.perform(get("/rest/admin/pool")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Map<String, Number> metrics = mapper.readValue(contentAsString, typeReference);
+
+        assertTrue("GET /rest/admin/pool должен возвращать число активных соединений.", metrics.containsKey("active"));
+        assertTrue("GET /rest/admin/pool должен возвращать число ожидающих потоков.", metrics.containsKey("pending"));
+        assertTrue("GET /rest/admin/pool должен учитывать выдачу соединений.", metrics.get("acquireCount").longValue() > 0);
+    }
+}
@@ -0,0 +1,61 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BatchCreateTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void createShipsEmptyBodyTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/batch")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test2
+    @Test
+    public void createShipsReportsEveryItemTest() throws Exception {
+        String content = "[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.NO_SPEED_JSON + ","
+                + TestsHelper.IS_USED_TRUE_JSON + "]";
+
+        String contentAsString = mockMvc.perform(post("/rest/ships/batch")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(content))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Map<String, Object>> actual = mapper.readValue(contentAsString,
+                new TypeReference<List<Map<String, Object>>>() {
+                });
+
+        assertEquals("POST /rest/ships/batch должен вернуть статус для каждого корабля.", 3, actual.size());
+        assertEquals("Корабль без скорости не должен создаваться.", "BAD_REQUEST", actual.get(1).get("status"));
+        assertEquals("Корректный корабль должен создаваться.", "OK", actual.get(0).get("status"));
+        assertEquals("Корректный корабль должен создаваться.", "OK", actual.get(2).get("status"));
+        assertEquals("Новые корабли должны получать id по порядку.", 41, actual.get(0).get("id"));
+        assertEquals("Новые корабли должны получать id по порядку.", 42, actual.get(2).get("id"));
+
+        String count = mockMvc.perform(get("/rest/ships/count"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("GET /rest/ships/count должен учитывать созданные корабли.", "42", count);
+
+        mockMvc.perform(get("/rest/ships/42"))
+                .andExpect(status().isOk());
+    }
+}
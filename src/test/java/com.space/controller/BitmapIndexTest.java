@@ -0,0 +1,110 @@
+package com.space.controller;
+
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "ship.query.engine=memory")
+public class BitmapIndexTest extends AbstractTest {
+
+    private final static String PLUTO_JSON = "{\"name\": \"Probe\", \"planet\": \"Pluto\", \"shipType\": \"MERCHANT\", "
+            + "\"prodDate\": 32998274577071, \"isUsed\": true, \"speed\": 0.5, \"crewSize\": 3}";
+
+    private TestsHelper testsHelper = new TestsHelper();
+
+    //test1
+    @Test
+    public void countByCategoriesTest() throws Exception {
+        List<ShipInfoTest> ships = testsHelper.getAllShips();
+
+        assertEquals("Неверное количество кораблей с фильтром shipType.",
+                (long) testsHelper.getShipInfosByShipType(ShipType.MERCHANT, ships).size(),
+                getCount("shipType=MERCHANT"));
+        assertEquals("Неверное количество кораблей с фильтром isUsed.",
+                (long) testsHelper.getShipInfosByIsUsed(true, ships).size(),
+                getCount("isUsed=true"));
+        assertEquals("Неверное количество кораблей с фильтром planet.",
+                (long) testsHelper.getShipInfosByPlanet("ar", ships).size(),
+                getCount("planet=ar"));
+        assertEquals("Неверное количество кораблей с фильтрами shipType, isUsed и planet.",
+                (long) testsHelper.getShipInfosByShipType(ShipType.MILITARY,
+                        testsHelper.getShipInfosByIsUsed(false,
+                                testsHelper.getShipInfosByPlanet("Earth", ships))).size(),
+                getCount("shipType=MILITARY&isUsed=false&planet=Earth"));
+        assertEquals("Неверное количество кораблей с фильтрами shipType и maxCrewSize.",
+                (long) testsHelper.getShipInfosByMaxCrewSize(1000,
+                        testsHelper.getShipInfosByShipType(ShipType.TRANSPORT, ships)).size(),
+                getCount("shipType=TRANSPORT&maxCrewSize=1000"));
+    }
+
+    //test2
+    @Test
+    public void countAfterUpdateTest() throws Exception {
+        long merchants = getCount("shipType=MERCHANT");
+        long plutoMerchants = getCount("shipType=MERCHANT&planet=Pluto");
+
+        mockMvc.perform(post("/rest/ships/3")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"planet\": \"Pluto\", \"shipType\": \"MERCHANT\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals("После обновления корабля количество по shipType должно измениться.",
+                merchants + 1, getCount("shipType=MERCHANT"));
+        assertEquals("После обновления корабля количество по shipType и planet должно измениться.",
+                plutoMerchants + 1, getCount("shipType=MERCHANT&planet=Pluto"));
+    }
+
+    //test3
+    @Test
+    public void countManyShipsTest() throws Exception {
+        int created = 4100;
+        StringBuilder content = new StringBuilder("[");
+        for (int i = 0; i < created; i++) {
+            content.append(i > 0 ? "," : "").append(PLUTO_JSON);
+        }
+        mockMvc.perform(post("/rest/ships/batch")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(content.append("]").toString()))
+                .andExpect(status().isOk());
+
+        assertEquals("Количество созданных кораблей должно учитываться.",
+                (long) created, getCount("planet=Pluto&isUsed=true"));
+
+        int deleted = 5;
+        for (int id = 41; id < 41 + deleted; id++) {
+            mockMvc.perform(delete("/rest/ships/" + id))
+                    .andExpect(status().isOk());
+        }
+
+        assertEquals("Количество удалённых кораблей должно учитываться.",
+                (long) created - deleted, getCount("planet=Pluto&shipType=MERCHANT"));
+        assertEquals("Список кораблей должен совпадать с количеством.",
+                (long) created - deleted, (long) getCountOfList("planet=Pluto&shipType=MERCHANT"));
+    }
+
+    private long getCount(String query) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/count?" + query))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(contentAsString);
+    }
+
+    private int getCountOfList(String query) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships?pageSize=10000&" + query))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return contentAsString.split("\"id\"").length - 1;
+    }
+}
@@ -0,0 +1,114 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BulkShipTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void updateShipsWithoutConditionTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/bulk")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"planet\": \"Titan\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test2
+    @Test
+    public void updateShipsInvalidValueTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/bulk?ids=1,2")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\": 1.5}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test3
+    @Test
+    public void updateShipsByIdsRecomputesRatingTest() throws Exception {
+        String updated = mockMvc.perform(post("/rest/ships/bulk?ids=1,5,999")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"isUsed\": true, \"crewSize\": 100}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("POST /rest/ships/bulk должен вернуть число обновленных кораблей.", "2", updated);
+
+        ShipInfoTest ship = getShip(5);
+        assertEquals("После массового обновления должно измениться поле crewSize.", 100, ship.crewSize);
+        assertEquals("После массового обновления должен пересчитываться rating.", 2.84, ship.rating);
+
+        mockMvc.perform(post("/rest/ships/bulk?ids=1")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\": 0.504, \"isUsed\": false}"))
+                .andExpect(status().isOk());
+
+        ship = getShip(1);
+        assertEquals("После массового обновления должна округляться скорость.", 0.5, ship.speed);
+        assertEquals("После массового обновления должен пересчитываться rating.", 1.6, ship.rating);
+    }
+
+    //test4
+    @Test
+    public void updateShipsByFilterTest() throws Exception {
+        String saturn = mockMvc.perform(get("/rest/ships/count?planet=Saturn"))
+                .andReturn().getResponse().getContentAsString();
+
+        String updated = mockMvc.perform(post("/rest/ships/bulk?planet=Saturn")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"planet\": \"Titan\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String titan = mockMvc.perform(get("/rest/ships/count?planet=Titan"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("POST /rest/ships/bulk должен вернуть число обновленных кораблей.", saturn, updated);
+        assertEquals("После массового обновления фильтр должен учитывать новые значения.", saturn, titan);
+    }
+
+    //test5
+    @Test
+    public void deleteShipsByFilterTest() throws Exception {
+        String military = mockMvc.perform(get("/rest/ships/count?shipType=MILITARY"))
+                .andReturn().getResponse().getContentAsString();
+
+        String deleted = mockMvc.perform(delete("/rest/ships/bulk?shipType=MILITARY"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String left = mockMvc.perform(get("/rest/ships/count"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("DELETE /rest/ships/bulk должен вернуть число удаленных кораблей.", military, deleted);
+        assertEquals("После массового удаления должны остаться только остальные корабли.",
+                40 - Long.parseLong(military), Long.parseLong(left));
+    }
+
+    //test6
+    @Test
+    public void deleteShipsByIdsTest() throws Exception {
+        String deleted = mockMvc.perform(delete("/rest/ships/bulk?ids=1,2,999"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("DELETE /rest/ships/bulk должен вернуть число удаленных кораблей.", "2", deleted);
+        mockMvc.perform(get("/rest/ships/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ShipInfoTest getShip(long id) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/" + id)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, ShipInfoTest.class);
+    }
+}
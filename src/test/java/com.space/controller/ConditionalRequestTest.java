@@ -0,0 +1,74 @@
+package com.space.controller;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ConditionalRequestTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void getShipNotModifiedTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/7"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+
+        mockMvc.perform(get("/rest/ships/7")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+
+    //test2
+    @Test
+    public void updateShipChangesETagTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/7")
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Icarus II\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(get("/rest/ships/7")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    //test3
+    @Test
+    public void updateShipStaleIfMatchTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/7")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\": 0.5}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/rest/ships/7")
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\": 0.6}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/rest/ships/7"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    //test4
+    @Test
+    public void bulkUpdateChangesETagTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/bulk?ids=7")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\": 10}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/rest/ships/7")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+}
@@ -0,0 +1,63 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ExportTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void exportAllTest() throws Exception {
+        String[] lines = export("/rest/ships/export");
+
+        assertEquals("GET /rest/ships/export должен вернуть все корабли, по одному на строку.", 40, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            ShipInfoTest ship = mapper.readValue(lines[i], ShipInfoTest.class);
+            assertEquals("GET /rest/ships/export должен возвращать корабли по порядку id.", (long) i + 1, ship.id);
+        }
+    }
+
+    //test2
+    @Test
+    public void exportWithFiltersTest() throws Exception {
+        String count = mockMvc.perform(get("/rest/ships/count?shipType=TRANSPORT&minSpeed=0.5"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = export("/rest/ships/export?shipType=TRANSPORT&minSpeed=0.5");
+
+        assertEquals("GET /rest/ships/export должен учитывать фильтры.", Integer.parseInt(count), lines.length);
+        for (String line : lines) {
+            ShipInfoTest ship = mapper.readValue(line, ShipInfoTest.class);
+            assertTrue("GET /rest/ships/export должен учитывать фильтры.", ship.speed >= 0.5);
+        }
+    }
+
+    //test3
+    @Test
+    public void exportEmptyTest() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships/export?name=nothing-like-this"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertEquals("GET /rest/ships/export без подходящих кораблей должен вернуть пустое тело.",
+                "", response.getContentAsString());
+    }
+
+    private String[] export(String url) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertEquals("GET /rest/ships/export должен возвращать NDJSON.", MyShipController.NDJSON,
+                response.getContentType().split(";")[0]);
+        return response.getContentAsString().split("\n");
+    }
+}
@@ -0,0 +1,73 @@
+package com.space.controller;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The sql engine answers from the database, so it also sees rows written by another node or by hand.
+ */
+public class ExternalWriteTest extends AbstractTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private long id;
+
+    @Before
+    public void insertShip() {
+        jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        id = insertShip(jdbcTemplate);
+    }
+
+    /**
+     * Inserts a ship with plain JDBC, taking its id from ship_sequence like any load that bypasses the
+     * application must, and returns the id.
+     */
+    static long insertShip(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("UPDATE ship_sequence SET last_val = last_val + 1 WHERE sequence_name = 'ship'");
+        long id = jdbcTemplate.queryForObject(
+                "SELECT last_val FROM ship_sequence WHERE sequence_name = 'ship'", Long.class);
+        jdbcTemplate.update("INSERT INTO ship (id, name, planet, shipType, prodDate, isUsed, speed, crewSize, rating) "
+                + "VALUES (?, 'Outsider', 'Venus', 'MERCHANT', '3010-01-01', false, 0.5, 10, 3.92)", id);
+        return id;
+    }
+
+    //test1
+    @Test
+    public void countByCategoriesTest() throws Exception {
+        assertEquals("GET /rest/ships/count должен учитывать корабль, записанный в обход сервиса.",
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ship WHERE isUsed = false", Long.class),
+                Long.parseLong(getContent("/rest/ships/count?isUsed=false")));
+    }
+
+    //test2
+    @Test
+    public void listByCategoriesTest() throws Exception {
+        String content = getContent("/rest/ships?shipType=MERCHANT&planet=Venus&pageSize=100");
+
+        assertEquals("GET /rest/ships должен находить корабль, записанный в обход сервиса.", true,
+                content.contains("\"id\":" + id));
+    }
+
+    //test3
+    @Test
+    public void listByRangesTest() throws Exception {
+        String content = getContent("/rest/ships?minSpeed=0.5&maxSpeed=0.5&minCrewSize=10&maxCrewSize=10");
+
+        assertEquals("GET /rest/ships с диапазонами должен находить корабль, записанный в обход сервиса.", true,
+                content.contains("\"id\":" + id));
+    }
+
+    private String getContent(String url) throws Exception {
+        return mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,98 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetAllByCursorTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void getAllByCursorWalksAllShipsById() throws Exception {
+        List<ShipInfoTest> actual = readAllPages("/rest/ships?pageSize=7");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByOrder(ShipOrder.ID, testsHelper.getAllShips());
+
+        assertEquals("Возвращается не правильный результат при постраничном обходе GET /rest/ships с параметром cursor.", expected, actual);
+    }
+
+    //test2
+    @Test
+    public void getAllByCursorWithFilterIsUsedOrderSpeed() throws Exception {
+        List<ShipInfoTest> actual = readAllPages("/rest/ships?isUsed=false&order=SPEED&pageSize=4");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByOrder(ShipOrder.SPEED,
+                testsHelper.getShipInfosByIsUsed(false, testsHelper.getAllShips()));
+
+        assertEquals("Возвращается не правильный результат при постраничном обходе GET /rest/ships с параметрами cursor, isUsed и order.", expected, actual);
+    }
+
+    //test3
+    @Test
+    public void getAllByCursorWithOrderRating() throws Exception {
+        List<ShipInfoTest> actual = readAllPages("/rest/ships?order=RATING&pageSize=3");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByOrder(ShipOrder.RATING, testsHelper.getAllShips());
+
+        assertEquals("Возвращается не правильный результат при постраничном обходе GET /rest/ships с параметрами cursor и order.", expected, actual);
+    }
+
+    //test4
+    @Test
+    public void getAllByCursorWithOrderDate() throws Exception {
+        List<ShipInfoTest> actual = readAllPages("/rest/ships?order=DATE&pageSize=2");
+        List<ShipInfoTest> expected = new ArrayList<>(testsHelper.getAllShips());
+        expected.sort(Comparator.comparing((ShipInfoTest ship) -> ship.prodDate).thenComparing(ship -> ship.id));
+
+        assertEquals("Возвращается не правильный результат при постраничном обходе GET /rest/ships с параметрами cursor и order.", expected, actual);
+    }
+
+    //test5
+    @Test
+    public void getAllByCursorInvalidCursor() throws Exception {
+        mockMvc.perform(get("/rest/ships?cursor=test")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test6
+    @Test
+    public void getAllByCursorFromAnotherOrder() throws Exception {
+        String cursor = mockMvc.perform(get("/rest/ships?cursor=&order=SPEED")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(MyShipController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/rest/ships?order=RATING&cursor=" + cursor)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<ShipInfoTest> readAllPages(String url) throws Exception {
+        List<ShipInfoTest> result = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            MockHttpServletResponse response = mockMvc.perform(get(url + "&cursor=" + cursor)
+                    .accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            result.addAll(mapper.readValue(response.getContentAsString(), typeReference));
+            cursor = response.getHeader(MyShipController.NEXT_CURSOR_HEADER);
+        }
+        return result;
+    }
+}
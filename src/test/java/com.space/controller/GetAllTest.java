@@ -217,4 +217,15 @@ public class GetAllTest extends AbstractTest {
 
         assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметрами after, before, minCrewSize и maxCrewSize.", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test11
+    @Test
+    public void getAllWithOffsetBeyondIntRange() throws Exception {
+        mockMvc.perform(get("/rest/ships?pageNumber=2147483647&pageSize=2")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rest/ships?pageNumber=1073741823&pageSize=2")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,77 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ImportTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void importCsvWithoutRequiredColumnTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/import")
+                .contentType(MyShipController.CSV)
+                .content("name,planet,shipType\nA,B,MILITARY\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test2
+    @Test
+    public void importCsvReportsRejectedRowsTest() throws Exception {
+        String csv = "crewSize,name,planet,shipType,prodDate,isUsed,speed\n"
+                + "14,\"Ship, first\",Earth,MILITARY,3010-05-01,false,0.8\n"
+                + "14,Too fast,Earth,MILITARY,3010-05-01,false,2.0\n"
+                + "14,Boat,Earth,BOAT,3010-05-01,false,0.5\n"
+                + "\n"
+                + "100,Last,Mars,TRANSPORT,32998274577071,,0.42\n";
+
+        JsonNode report = importShips(MyShipController.CSV, csv);
+
+        assertEquals("Импорт должен прочитать все непустые строки.", 4L, report.get("read").asLong());
+        assertEquals("Импорт должен сохранить корректные строки.", 2L, report.get("imported").asLong());
+        assertEquals("Импорт должен отклонить некорректные строки.", 2L, report.get("rejected").asLong());
+        assertEquals("Отчет должен содержать номер отклоненной строки.", 3L,
+                report.get("errors").get(0).get("row").asLong());
+        assertEquals("Отчет должен содержать номер отклоненной строки.", 4L,
+                report.get("errors").get(1).get("row").asLong());
+
+        String ship = mockMvc.perform(get("/rest/ships/41"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Поля в кавычках должны разбираться целиком.", "Ship, first",
+                mapper.readTree(ship).get("name").asText());
+    }
+
+    //test3
+    @Test
+    public void importNdjsonInBatchesTest() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 1200; i++) {
+            ndjson.append("{\"name\":\"Imported ").append(i).append("\",\"planet\":\"Pluto\",\"shipType\":\"MERCHANT\",")
+                    .append("\"prodDate\":32998274577071,\"isUsed\":true,\"speed\":0.5,\"crewSize\":10}\n");
+        }
+
+        JsonNode report = importShips(MyShipController.NDJSON, ndjson.toString());
+
+        assertEquals("Импорт должен сохранить все строки.", 1200L, report.get("imported").asLong());
+        String count = mockMvc.perform(get("/rest/ships/count?planet=Pluto"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("GET /rest/ships/count должен учитывать импортированные корабли.", "1200", count);
+    }
+
+    private JsonNode importShips(String contentType, String content) throws Exception {
+        String contentAsString = mockMvc.perform(post("/rest/ships/import")
+                .contentType(contentType)
+                .content(content))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(contentAsString);
+    }
+}
@@ -0,0 +1,10 @@
+package com.space.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the bulk tests against the memory engine, which follows bulk writes ship by ship.
+ */
+@TestPropertySource(properties = "ship.query.engine=memory")
+public class MemoryBulkShipTest extends BulkShipTest {
+}
@@ -0,0 +1,10 @@
+package com.space.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the cursor tests against the memory engine, whose pages are read off the order views.
+ */
+@TestPropertySource(properties = "ship.query.engine=memory")
+public class MemoryGetAllByCursorTest extends GetAllByCursorTest {
+}
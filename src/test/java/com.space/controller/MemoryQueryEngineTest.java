@@ -0,0 +1,126 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import com.space.service.ShipQueryEngine;
+import com.space.service.index.ShipColumnIndex;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "ship.query.engine=memory")
+public class MemoryQueryEngineTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    @Autowired
+    private ShipQueryEngine queryEngine;
+
+    @Before
+    public void checkEngine() {
+        assertTrue("Должен использоваться движок запросов в памяти.", queryEngine instanceof ShipColumnIndex);
+    }
+
+    //test1
+    @Test
+    public void getAllWithFiltersShipTypeAfterBeforeOrderRating() throws Exception {
+        //after 00:00 01.01.3000
+        //before 00:00 01.01.3011
+        List<ShipInfoTest> actual = getShips("/rest/ships?shipType=MILITARY&after=32503672800000&before=32850741600000&order=RATING");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 3,
+                testsHelper.getShipInfosByOrder(ShipOrder.RATING,
+                        testsHelper.getShipInfosByShipType(ShipType.MILITARY,
+                                testsHelper.getShipInfosByAfter(32503672800000L,
+                                        testsHelper.getShipInfosByBefore(32850741600000L,
+                                                testsHelper.getAllShips())))));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметрами shipType, after, before и order.", expected, actual);
+    }
+
+    //test2
+    @Test
+    public void getAllWithFiltersPlanetNameMaxCrewSizePageNumber() throws Exception {
+        List<ShipInfoTest> actual = getShips("/rest/ships?planet=ur&name=a&maxCrewSize=4000&order=SPEED&pageNumber=1&pageSize=2");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(1, 2,
+                testsHelper.getShipInfosByOrder(ShipOrder.SPEED,
+                        testsHelper.getShipInfosByMaxCrewSize(4000,
+                                testsHelper.getShipInfosByName("a",
+                                        testsHelper.getShipInfosByPlanet("ur",
+                                                testsHelper.getAllShips())))));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметрами planet, name, maxCrewSize, order, pageNumber и pageSize.", expected, actual);
+    }
+
+    //test3
+    @Test
+    public void getCountWithFiltersIsUsedMinSpeedMinRating() throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/count?isUsed=true&minSpeed=0.5&minRating=1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        int expected = testsHelper.getShipInfosByMinRating(1.,
+                testsHelper.getShipInfosByMinSpeed(0.5,
+                        testsHelper.getShipInfosByIsUsed(true,
+                                testsHelper.getAllShips()))).size();
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships/count с параметрами isUsed, minSpeed и minRating.", expected, Integer.parseInt(contentAsString));
+    }
+
+    //test4
+    @Test
+    public void createdShipIsFound() throws Exception {
+        mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+
+        List<ShipInfoTest> actual = getShips("/rest/ships?name=123456789");
+
+        assertEquals("Созданный корабль должен находиться при запросе GET /rest/ships.", 1, actual.size());
+    }
+
+    //test5
+    @Test
+    public void updatedAndDeletedShipsAreReflected() throws Exception {
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"planet\": \"Pluto\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/rest/ships/1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        List<ShipInfoTest> pluto = getShips("/rest/ships?planet=Pluto");
+        List<ShipInfoTest> first = getShips("/rest/ships?pageSize=1");
+
+        assertEquals("Обновленный корабль должен находиться по новому значению planet.", 14L, pluto.get(0).id);
+        assertEquals("Удаленный корабль не должен возвращаться при запросе GET /rest/ships.", 2L, first.get(0).id);
+    }
+
+    private List<ShipInfoTest> getShips(String url) throws Exception {
+        String contentAsString = mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+}
@@ -0,0 +1,10 @@
+package com.space.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the rank tests against the memory engine, whose ranks are read off the in-process ranking.
+ */
+@TestPropertySource(properties = "ship.query.engine=memory")
+public class MemoryRankTest extends RankTest {
+}
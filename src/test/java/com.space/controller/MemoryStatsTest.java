@@ -0,0 +1,11 @@
+package com.space.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the statistics tests against the memory engine, which serves the unfiltered statistics from its
+ * running totals.
+ */
+@TestPropertySource(properties = "ship.query.engine=memory")
+public class MemoryStatsTest extends StatsTest {
+}
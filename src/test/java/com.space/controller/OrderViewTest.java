@@ -0,0 +1,89 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "ship.query.engine=memory")
+public class OrderViewTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void getAllInEveryOrderTest() throws Exception {
+        for (ShipOrder order : ShipOrder.values()) {
+            List<ShipInfoTest> actual = getShips("/rest/ships?order=" + order + "&pageNumber=2&pageSize=6");
+            List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(2, 6, sorted(order));
+
+            assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметром order=" + order + ".",
+                    expected, actual);
+        }
+    }
+
+    //test2
+    @Test
+    public void orderFollowsChangesTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/9")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\": 0.01}"))
+                .andExpect(status().isOk());
+
+        List<ShipInfoTest> actual = getShips("/rest/ships?order=SPEED&pageSize=1");
+        assertEquals("После обновления корабль должен быть первым по скорости.", 9L, actual.get(0).id);
+
+        mockMvc.perform(delete("/rest/ships/9"))
+                .andExpect(status().isOk());
+
+        actual = getShips("/rest/ships?order=SPEED&pageSize=40");
+        List<ShipInfoTest> expected = sorted(ShipOrder.SPEED);
+        expected.removeIf(ship -> ship.id == 9L);
+        assertEquals("После удаления корабль не должен возвращаться.", expected, actual);
+    }
+
+    // ties are broken by id, like the engines do
+    private List<ShipInfoTest> sorted(ShipOrder order) {
+        List<ShipInfoTest> ships = new ArrayList<>(testsHelper.getAllShips());
+        Comparator<ShipInfoTest> byId = Comparator.comparing(ship -> ship.id);
+        switch (order) {
+            case SPEED:
+                ships.sort(Comparator.comparing((ShipInfoTest ship) -> ship.speed).thenComparing(byId));
+                break;
+            case DATE:
+                ships.sort(Comparator.comparing((ShipInfoTest ship) -> ship.prodDate).thenComparing(byId));
+                break;
+            case RATING:
+                ships.sort(Comparator.comparing((ShipInfoTest ship) -> ship.rating).thenComparing(byId));
+                break;
+            default:
+                ships.sort(byId);
+        }
+        return ships;
+    }
+
+    private List<ShipInfoTest> getShips(String url) throws Exception {
+        String contentAsString = mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+}
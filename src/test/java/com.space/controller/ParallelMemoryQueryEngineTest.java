@@ -0,0 +1,10 @@
+package com.space.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the memory engine tests with every scan split over the fork-join pool.
+ */
+@TestPropertySource(properties = "ship.memory.parallelThreshold=1")
+public class ParallelMemoryQueryEngineTest extends MemoryQueryEngineTest {
+}
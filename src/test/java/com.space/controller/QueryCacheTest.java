@@ -0,0 +1,113 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.service.ShipFilter;
+import com.space.service.ShipQueryCache;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class QueryCacheTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> listType = new TypeReference<List<ShipInfoTest>>() {
+    };
+    private TypeReference<Map<String, Number>> statisticsType = new TypeReference<Map<String, Number>>() {
+    };
+
+    //test1
+    @Test
+    public void repeatedListIsCacheHit() throws Exception {
+        long hitsBefore = getStatistics().get("hits").longValue();
+
+        List<ShipInfoTest> first = getShips("/rest/ships?planet=Saturn&order=SPEED");
+        List<ShipInfoTest> second = getShips("/rest/ships?order=SPEED&planet=Saturn");
+
+        assertEquals("Повторный запрос GET /rest/ships должен возвращать тот же результат.", first, second);
+        assertTrue("Повторный запрос GET /rest/ships должен обслуживаться из кэша.",
+                getStatistics().get("hits").longValue() > hitsBefore);
+    }
+
+    //test2
+    @Test
+    public void countIsInvalidatedByCreate() throws Exception {
+        int before = getCount("/rest/ships/count?shipType=MILITARY");
+        getCount("/rest/ships/count?shipType=MILITARY");
+
+        mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+
+        assertEquals("После создания корабля GET /rest/ships/count должен учитывать новый корабль.",
+                before + 1, getCount("/rest/ships/count?shipType=MILITARY"));
+    }
+
+    //test3
+    @Test
+    public void listIsInvalidatedByUpdate() throws Exception {
+        getShips("/rest/ships?order=RATING");
+
+        mockMvc.perform(post("/rest/ships/9")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\": 0.01, \"isUsed\": true}"))
+                .andExpect(status().isOk());
+
+        List<ShipInfoTest> actual = getShips("/rest/ships?order=RATING&pageSize=1");
+        assertEquals("После обновления GET /rest/ships должен учитывать новое значение rating.", 9L, actual.get(0).id);
+    }
+
+    //test4
+    @Test
+    public void expiredCountIsQueriedAgain() {
+        ShipQueryCache cache = new ShipQueryCache(1024 * 1024, 0);
+        ShipFilter filter = new ShipFilter(null, "Mars", null, null, null, null, null, null,
+                null, null, null, null);
+        AtomicInteger queries = new AtomicInteger();
+
+        cache.getCount(filter, () -> queries.incrementAndGet());
+        cache.getCount(filter, () -> queries.incrementAndGet());
+
+        assertEquals("Запись кэша с истекшим сроком жизни должна запрашиваться заново.", 2, queries.get());
+        assertEquals("Истекшая запись кэша должна учитываться в статистике.", 1L,
+                cache.getStatistics().get("expirations").longValue());
+    }
+
+    private List<ShipInfoTest> getShips(String url) throws Exception {
+        String contentAsString = mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, listType);
+    }
+
+    private int getCount(String url) throws Exception {
+        String contentAsString = mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Integer.parseInt(contentAsString);
+    }
+
+    private Map<String, Number> getStatistics() throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/admin/query-cache")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, statisticsType);
+    }
+}
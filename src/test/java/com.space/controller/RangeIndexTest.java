@@ -0,0 +1,88 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "ship.query.engine=memory")
+public class RangeIndexTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void getAllWithSeveralRangesTest() throws Exception {
+        List<ShipInfoTest> actual = getShips("/rest/ships?minSpeed=0.5&maxSpeed=0.6&minCrewSize=100&maxRating=3&pageSize=40");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByMinSpeed(0.5,
+                testsHelper.getShipInfosByMaxSpeed(0.6,
+                        testsHelper.getShipInfosByMinCrewSize(100,
+                                testsHelper.getShipInfosByMaxRating(3.0,
+                                        testsHelper.getAllShips()))));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с несколькими диапазонами.",
+                expected, actual);
+    }
+
+    //test2
+    @Test
+    public void getAllWithDateRangeTest() throws Exception {
+        //after 00:00 01.01.3000
+        //before 00:00 01.01.3003
+        List<ShipInfoTest> actual = getShips("/rest/ships?after=32503672800000&before=32598367200000&maxCrewSize=5000&pageSize=40");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByAfter(32503672800000L,
+                testsHelper.getShipInfosByBefore(32598367200000L,
+                        testsHelper.getShipInfosByMaxCrewSize(5000,
+                                testsHelper.getAllShips())));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметрами after и before.",
+                expected, actual);
+    }
+
+    //test3
+    @Test
+    public void rangesFollowChangesTest() throws Exception {
+        String count = "/rest/ships/count?minSpeed=0.005&maxSpeed=0.015";
+        assertEquals("В диапазоне скоростей не должно быть кораблей.", 0L, getCount(count));
+
+        mockMvc.perform(post("/rest/ships/9")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\": 0.01}"))
+                .andExpect(status().isOk());
+        assertEquals("После обновления корабль должен попасть в диапазон скоростей.", 1L, getCount(count));
+
+        mockMvc.perform(delete("/rest/ships/9"))
+                .andExpect(status().isOk());
+        assertEquals("После удаления корабль не должен находиться в диапазоне скоростей.", 0L, getCount(count));
+    }
+
+    private List<ShipInfoTest> getShips(String url) throws Exception {
+        String contentAsString = mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+
+    private long getCount(String url) throws Exception {
+        String contentAsString = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(contentAsString);
+    }
+}
@@ -0,0 +1,137 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class RankTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void rankByEveryOrderTest() throws Exception {
+        List<ShipInfoTest> bySpeed = sortedDescending(Comparator.comparing(ship -> ship.speed));
+        List<ShipInfoTest> byRating = sortedDescending(Comparator.comparing(ship -> ship.rating));
+        List<ShipInfoTest> byDate = sortedDescending(Comparator.comparing(ship -> ship.prodDate));
+
+        for (long id : new long[]{1, 17, 40}) {
+            assertEquals("Неверный ранг корабля по скорости.", (long) indexOf(bySpeed, id) + 1, getRank(id, "SPEED"));
+            assertEquals("Неверный ранг корабля по рейтингу.", (long) indexOf(byRating, id) + 1, getRank(id, "RATING"));
+            assertEquals("Неверный ранг корабля по дате.", (long) indexOf(byDate, id) + 1, getRank(id, "DATE"));
+        }
+    }
+
+    //test2
+    @Test
+    public void topShipsTest() throws Exception {
+        List<ShipInfoTest> actual = getShips("/rest/ships/top?order=RATING&n=5");
+        List<ShipInfoTest> expected = sortedDescending(Comparator.comparing(ship -> ship.rating)).subList(0, 5);
+
+        assertEquals("GET /rest/ships/top должен возвращать корабли с наибольшим рейтингом.", expected, actual);
+
+        mockMvc.perform(get("/rest/ships/top?n=0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rest/ships/top?n=1001"))
+                .andExpect(status().isBadRequest());
+        assertEquals("GET /rest/ships/top?n=1000 должен возвращать все корабли.", 40,
+                getShips("/rest/ships/top?n=1000").size());
+        mockMvc.perform(get("/rest/ships/top?order=ID"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test3
+    @Test
+    public void rankFollowsChangesTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/9")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\": 0.99, \"isUsed\": false, \"prodDate\": 33110000000000}"))
+                .andExpect(status().isOk());
+
+        assertEquals("После обновления корабль должен быть первым по рейтингу.", 1L, getRank(9, "RATING"));
+        assertEquals("После обновления корабль должен быть первым в списке лучших.", 9L,
+                getShips("/rest/ships/top?n=1").get(0).id);
+
+        mockMvc.perform(delete("/rest/ships/9"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships/9/rank"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/rest/ships/test/rank"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test4
+    @Test
+    public void rankOfShipWrittenElsewhereTest() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        long id = ExternalWriteTest.insertShip(jdbcTemplate);
+        long expected = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ship WHERE rating > 3.92 OR (rating = 3.92 AND id < ?)", Long.class, id) + 1;
+
+        String contentAsString = mockMvc.perform(get("/rest/ships/" + id + "/rank")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Map<String, Object> rank = mapper.readValue(contentAsString, new TypeReference<Map<String, Object>>() {
+        });
+
+        assertEquals("Ранг корабля, записанного в обход сервиса, должен считаться по базе.", expected,
+                ((Number) rank.get("rank")).longValue());
+        mockMvc.perform(get("/rest/ships/" + (id + 1) + "/rank"))
+                .andExpect(status().isNotFound());
+    }
+
+    private List<ShipInfoTest> sortedDescending(Comparator<ShipInfoTest> comparator) {
+        List<ShipInfoTest> ships = new ArrayList<>(testsHelper.getAllShips());
+        ships.sort(comparator.reversed().thenComparing(ship -> ship.id));
+        return ships;
+    }
+
+    private static int indexOf(List<ShipInfoTest> ships, long id) {
+        for (int i = 0; i < ships.size(); i++) {
+            if (ships.get(i).id == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private long getRank(long id, String order) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/" + id + "/rank?order=" + order)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Map<String, Object> rank = mapper.readValue(contentAsString, new TypeReference<Map<String, Object>>() {
+        });
+        assertEquals("Общее количество кораблей в рейтинге должно быть 40.", 40, rank.get("total"));
+        return ((Number) rank.get("rank")).longValue();
+    }
+
+    private List<ShipInfoTest> getShips(String url) throws Exception {
+        String contentAsString = mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+}
@@ -0,0 +1,120 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class RatingJobTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void recomputeAllRatingsTest() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("UPDATE ship SET rating = 0 WHERE id IN (1, 20, 40)");
+
+        mockMvc.perform(post("/rest/admin/rating-job"))
+                .andExpect(status().isAccepted());
+        JsonNode progress = awaitJob();
+
+        assertEquals("Задача пересчета должна завершиться.", "FINISHED", progress.get("state").asText());
+        assertEquals("Задача пересчета должна прочитать все корабли.", 40L, progress.get("shipsRead").asLong());
+        assertEquals("После пересчета rating должен соответствовать формуле.", 1.31, getRating(1));
+        assertEquals("После пересчета rating должен соответствовать формуле.", 24.53, getRating(40));
+
+        mockMvc.perform(post("/rest/admin/rating-job"))
+                .andExpect(status().isAccepted());
+        progress = awaitJob();
+        assertEquals("Повторный пересчет не должен ничего обновлять.", 0L, progress.get("shipsUpdated").asLong());
+    }
+
+    //test2
+    @Test
+    public void resumeInterruptedJobTest() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("UPDATE ship SET rating = 0 WHERE id IN (1, 20)");
+        // an interrupted run that had only the range 1..10 left
+        jdbcTemplate.update("INSERT INTO rating_job_range (range_start, range_end, done) VALUES (1, 10, FALSE)");
+        jdbcTemplate.update("INSERT INTO rating_job_range (range_start, range_end, done) VALUES (11, 40, TRUE)");
+
+        mockMvc.perform(post("/rest/admin/rating-job"))
+                .andExpect(status().isAccepted());
+        JsonNode progress = awaitJob();
+
+        assertEquals("Задача пересчета должна продолжить прерванный запуск.", true, progress.get("resumed").asBoolean());
+        assertEquals("Задача пересчета должна обработать только оставшиеся диапазоны.", 10L,
+                progress.get("shipsRead").asLong());
+        assertEquals("После пересчета rating должен соответствовать формуле.", 1.31, getRating(1));
+        assertEquals("Завершенные диапазоны не должны пересчитываться.", 0.0, getRating(20));
+        assertEquals("После завершения задачи список диапазонов должен очищаться.", 0,
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rating_job_range", Integer.class));
+    }
+
+    //test3
+    @Test
+    public void jobClaimedByAnotherNodeTest() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("UPDATE rating_job SET owner = 'other-node', lease_until = ?",
+                System.currentTimeMillis() + 3_600_000L);
+
+        mockMvc.perform(post("/rest/admin/rating-job"))
+                .andExpect(status().isConflict());
+        assertEquals("Пока другой узел держит задачу, диапазоны не должны пересоздаваться.", 0,
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rating_job_range", Integer.class));
+
+        // the other node died and its lease ran out
+        jdbcTemplate.update("UPDATE rating_job SET lease_until = ?", System.currentTimeMillis() - 1);
+        mockMvc.perform(post("/rest/admin/rating-job"))
+                .andExpect(status().isAccepted());
+        JsonNode progress = awaitJob();
+
+        assertEquals("После истечения аренды задача пересчета должна запускаться.", "FINISHED",
+                progress.get("state").asText());
+        assertEquals("После завершения задачи аренда должна освобождаться.", 0,
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rating_job WHERE owner IS NOT NULL", Integer.class));
+    }
+
+    //test4
+    @Test
+    public void cachedShipGetsNewRatingTest() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("UPDATE ship SET rating = 0 WHERE id = 1");
+        assertEquals("Кэш должен загрузить измененный rating.", 0.0, getRating(1));
+
+        mockMvc.perform(post("/rest/admin/rating-job"))
+                .andExpect(status().isAccepted());
+        awaitJob();
+
+        assertEquals("Пересчитанный rating должен попадать в кэш.", 1.31, getRating(1));
+    }
+
+    private JsonNode awaitJob() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            String contentAsString = mockMvc.perform(get("/rest/admin/rating-job"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode progress = mapper.readTree(contentAsString);
+            if (!"RUNNING".equals(progress.get("state").asText())) {
+                return progress;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Задача пересчета не завершилась за 10 секунд.");
+    }
+
+    private double getRating(long id) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(contentAsString).get("rating").asDouble();
+    }
+}
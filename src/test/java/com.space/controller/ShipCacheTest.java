@@ -0,0 +1,81 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ShipCacheTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<Map<String, Number>> typeReference = new TypeReference<Map<String, Number>>() {
+    };
+
+    //test1
+    @Test
+    public void getShipTwiceIsCacheHit() throws Exception {
+        long hitsBefore = getStatistics().get("hits").longValue();
+
+        getShip(3);
+        getShip(3);
+
+        long hitsAfter = getStatistics().get("hits").longValue();
+        assertTrue("Повторный запрос GET /rest/ships/{id} должен обслуживаться из кэша.", hitsAfter > hitsBefore);
+    }
+
+    //test2
+    @Test
+    public void getShipAfterUpdateReturnsNewValues() throws Exception {
+        getShip(3);
+
+        mockMvc.perform(post("/rest/ships/3")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Cached\", \"speed\": 0.5}"))
+                .andExpect(status().isOk());
+
+        ShipInfoTest actual = getShip(3);
+        assertEquals("После обновления GET /rest/ships/{id} должен возвращать новое значение name.", "Cached", actual.name);
+        assertEquals("После обновления GET /rest/ships/{id} должен возвращать новое значение speed.", 0.5, actual.speed);
+    }
+
+    //test3
+    @Test
+    public void getShipAfterDeleteIsNotFound() throws Exception {
+        getShip(3);
+
+        mockMvc.perform(delete("/rest/ships/3")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/rest/ships/3")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isNotFound());
+    }
+
+    private ShipInfoTest getShip(long id) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/" + id)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, ShipInfoTest.class);
+    }
+
+    private Map<String, Number> getStatistics() throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/admin/cache")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+}
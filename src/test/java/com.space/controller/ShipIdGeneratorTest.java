@@ -0,0 +1,45 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "ship.id.allocationSize=50")
+public class ShipIdGeneratorTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void createShipsReserveOneBlockTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/batch")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.NORMAL_JSON + "]"))
+                .andExpect(status().isOk());
+
+        String contentAsString = mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        ShipInfoTest actual = mapper.readValue(contentAsString, ShipInfoTest.class);
+
+        assertEquals("Id нового корабля должен продолжать существующие id.", 43L, actual.id);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        Long lastValue = jdbcTemplate.queryForObject(
+                "SELECT last_val FROM ship_sequence WHERE sequence_name = 'ship'", Long.class);
+        assertEquals("Три корабля должны получить id из одного блока ship_sequence.", 90L, lastValue);
+    }
+}
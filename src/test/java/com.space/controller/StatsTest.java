@@ -0,0 +1,115 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class StatsTest extends AbstractTest {
+
+    // минимальный фильтр, пропускающий все корабли, заставляет считать статистику запросом к базе
+    private final static String MATCH_ALL = "?minCrewSize=1";
+    private final static double DELTA = 1e-9;
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void statsWithoutFilterTest() throws Exception {
+        JsonNode stats = getStats("");
+
+        assertEquals("GET /rest/ships/stats должен возвращать то же количество, что и GET /rest/ships/count.",
+                getCount(""), stats.get("count").asLong());
+        assertEquals("Количество по типам кораблей должно совпадать с GET /rest/ships/count.",
+                getCount("?shipType=MERCHANT"), stats.get("byShipType").get("MERCHANT").get("count").asLong());
+        assertEquals("Количество по планетам должно совпадать с GET /rest/ships/count.",
+                getCount("?planet=Earth"), stats.get("byPlanet").get("Earth").get("count").asLong());
+        assertEquals("Количество использованных кораблей должно совпадать с GET /rest/ships/count.",
+                getCount("?isUsed=true"), stats.get("byUsed").get("used").get("count").asLong());
+        assertStatsEqual(getStats(MATCH_ALL), stats);
+    }
+
+    //test2
+    @Test
+    public void statsWithFilterTest() throws Exception {
+        JsonNode stats = getStats("?planet=Earth&isUsed=false");
+
+        assertEquals("GET /rest/ships/stats с фильтром должен возвращать то же количество, что и GET /rest/ships/count.",
+                getCount("?planet=Earth&isUsed=false"), stats.get("count").asLong());
+        assertEquals("С фильтром по планете в статистике должна быть только эта планета.",
+                1, stats.get("byPlanet").size());
+        assertTrue("С фильтром isUsed=false в статистике не должно быть использованных кораблей.",
+                !stats.get("byUsed").has("used"));
+    }
+
+    //test3
+    @Test
+    public void statsFollowChangesTest() throws Exception {
+        long countBefore = getStats("").get("count").asLong();
+
+        mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/rest/ships/9")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"planet\": \"Pluto\", \"speed\": 0.01}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/rest/ships/12"))
+                .andExpect(status().isOk());
+
+        JsonNode stats = getStats("");
+        assertEquals("После создания и удаления корабля количество не должно измениться.",
+                countBefore, stats.get("count").asLong());
+        assertStatsEqual(getStats(MATCH_ALL), stats);
+    }
+
+    private void assertStatsEqual(JsonNode expected, JsonNode actual) {
+        assertEquals("Количество кораблей в статистике не совпадает.",
+                expected.get("count").asLong(), actual.get("count").asLong());
+        for (String metric : new String[]{"avgSpeed", "avgRating", "avgCrewSize"}) {
+            assertTrue("Среднее " + metric + " в статистике не совпадает.",
+                    Math.abs(expected.get(metric).asDouble() - actual.get(metric).asDouble()) < DELTA);
+        }
+        for (String groups : new String[]{"byShipType", "byPlanet", "byUsed"}) {
+            assertEquals("Группы " + groups + " в статистике не совпадают.",
+                    expected.get(groups).size(), actual.get(groups).size());
+            Iterator<Map.Entry<String, JsonNode>> fields = expected.get(groups).fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                assertEquals("Количество в группе " + field.getKey() + " не совпадает.",
+                        field.getValue().get("count").asLong(),
+                        actual.get(groups).get(field.getKey()).get("count").asLong());
+            }
+        }
+    }
+
+    private JsonNode getStats(String query) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/stats" + query)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(contentAsString);
+    }
+
+    private long getCount(String query) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/count" + query)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(contentAsString);
+    }
+}
@@ -0,0 +1,100 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class SubstringFilterTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void getAllWithFiltersLongNameAndPlanet() throws Exception {
+        List<ShipInfoTest> actual = getShips("/rest/ships?name=ion&planet=urn&pageSize=10");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 10,
+                testsHelper.getShipInfosByName("ion",
+                        testsHelper.getShipInfosByPlanet("urn",
+                                testsHelper.getAllShips())));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметрами name и planet.", expected, actual);
+    }
+
+    //test2
+    @Test
+    public void getAllWithFiltersLongNameShortPlanet() throws Exception {
+        List<ShipInfoTest> actual = getShips("/rest/ships?name=Star&planet=ur&pageSize=10");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 10,
+                testsHelper.getShipInfosByName("Star",
+                        testsHelper.getShipInfosByPlanet("ur",
+                                testsHelper.getAllShips())));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметрами name и planet.", expected, actual);
+    }
+
+    //test3
+    @Test
+    public void getCountWithFilterUnknownName() throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/count?name=Zeppelin")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships/count с параметром name.", 0, Integer.parseInt(contentAsString));
+    }
+
+    //test4
+    @Test
+    public void getAllWithFilterNameAfterRename() throws Exception {
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Zeppelin\"}"))
+                .andExpect(status().isOk());
+
+        List<ShipInfoTest> renamed = getShips("/rest/ships?name=eppe");
+        List<ShipInfoTest> previous = getShips("/rest/ships?name=Scorpio");
+
+        assertEquals("Переименованный корабль должен находиться по новому значению name.", 1, renamed.size());
+        assertEquals("Переименованный корабль не должен находиться по старому значению name.", 0, previous.size());
+    }
+
+    //test5
+    @Test
+    public void getCountWithFilterOtherCase() throws Exception {
+        String lowerCase = mockMvc.perform(get("/rest/ships/count?name=orion&planet=mars")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String sameCase = mockMvc.perform(get("/rest/ships/count?name=Orion&planet=Mars")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Фильтры name и planet должны учитывать регистр.", 0, Integer.parseInt(lowerCase));
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships/count с параметрами name и planet.",
+                testsHelper.getShipInfosByName("Orion", testsHelper.getShipInfosByPlanet("Mars",
+                        testsHelper.getAllShips())).size(), Integer.parseInt(sameCase));
+    }
+
+    private List<ShipInfoTest> getShips(String url) throws Exception {
+        String contentAsString = mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+}
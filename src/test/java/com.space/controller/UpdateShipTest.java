@@ -10,6 +10,7 @@ import org.springframework.test.web.servlet.ResultActions;
 
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.util.AssertionErrors.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -188,4 +189,23 @@ public class UpdateShipTest extends AbstractTest {
 
         assertEquals("При запросе POST /rest/ships/{id} корабль должен обновляться и рейтинг пересчитываться", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test12
+    @Test
+    public void updateShipPartlyInvalidTest() throws Exception {
+        ShipInfoTest expected = testsHelper.getShipInfosById(3);
+
+        mockMvc.perform(post("/rest/ships/3")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Renamed\", \"crewSize\": 100000}"))
+                .andExpect(status().isBadRequest());
+
+        String contentAsString = mockMvc.perform(get("/rest/ships/3")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andReturn().getResponse().getContentAsString();
+        ShipInfoTest actual = mapper.readValue(contentAsString, ShipInfoTest.class);
+
+        assertEquals("При некорректном запросе POST /rest/ships/{id} корабль не должен изменяться", expected, actual);
+    }
+}
@@ -0,0 +1,126 @@
+package com.space.service;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+
+public class ShipRulesTest {
+    private final static long MILLIS_PER_HOUR = 3_600_000L;
+
+    private ShipRules shipRules = new ShipRules();
+
+    //test1
+    @Test
+    public void getYearAtBoundaryYears() {
+        for (int year : new int[]{ShipRules.AFTER_PROD_YEAR, ShipRules.BEFORE_PROD_YEAR}) {
+            long firstMillis = millis(year, Calendar.JANUARY, 1, 0, 0, 0, 0);
+            long lastMillis = millis(year, Calendar.DECEMBER, 31, 23, 59, 59, 999);
+
+            assertEquals("Год 1 января должен определяться в часовом поясе сервера.", year, shipRules.getYear(firstMillis));
+            assertEquals("Год 31 декабря должен определяться в часовом поясе сервера.", year, shipRules.getYear(lastMillis));
+            assertEquals("Миллисекунда до 1 января относится к предыдущему году.", year - 1, shipRules.getYear(firstMillis - 1));
+            assertEquals("Миллисекунда после 31 декабря относится к следующему году.", year + 1, shipRules.getYear(lastMillis + 1));
+        }
+
+        assertEquals("Год 2800 должен проходить проверку.", true,
+                shipRules.isProdYearValid(shipRules.getYear(millis(2800, Calendar.JANUARY, 1, 0, 0, 0, 0))));
+        assertEquals("Год 3019 должен проходить проверку.", true,
+                shipRules.isProdYearValid(shipRules.getYear(millis(3019, Calendar.DECEMBER, 31, 23, 59, 59, 999))));
+        assertEquals("Год 2799 не должен проходить проверку.", false,
+                shipRules.isProdYearValid(shipRules.getYear(millis(2799, Calendar.DECEMBER, 31, 23, 59, 59, 999))));
+        assertEquals("Год 3020 не должен проходить проверку.", false,
+                shipRules.isProdYearValid(shipRules.getYear(millis(3020, Calendar.JANUARY, 1, 0, 0, 0, 0))));
+    }
+
+    //test2
+    @Test
+    public void yearOfEpochDayAtLeapDays() {
+        // 2800 is divisible by 400 and a leap year, 2900 is divisible by 100 only and is not
+        LocalDate[] days = {
+                LocalDate.of(2800, 2, 29), LocalDate.of(2800, 3, 1), LocalDate.of(2804, 2, 29),
+                LocalDate.of(2900, 2, 28), LocalDate.of(2900, 3, 1), LocalDate.of(3016, 2, 29),
+                LocalDate.of(2000, 2, 29), LocalDate.of(2400, 12, 31), LocalDate.of(2401, 1, 1)
+        };
+        for (LocalDate day : days) {
+            assertEquals("Год високосного дня " + day + " должен совпадать с LocalDate.", day.getYear(),
+                    ShipRules.yearOfEpochDay(day.toEpochDay()));
+            assertEquals("Год дня " + day + " должен совпадать с Calendar.", day.getYear(), shipRules.getYear(
+                    millis(day.getYear(), day.getMonthValue() - 1, day.getDayOfMonth(), 12, 0, 0, 0)));
+        }
+    }
+
+    //test3
+    @Test
+    public void yearOfNegativeEpochDay() {
+        assertEquals("День -1 относится к 1969 году.", 1969, ShipRules.yearOfEpochDay(-1));
+        assertEquals("День -365 относится к 1969 году.", 1969, ShipRules.yearOfEpochDay(-365));
+        assertEquals("День -366 относится к 1968 году.", 1968, ShipRules.yearOfEpochDay(-366));
+        for (LocalDate day : new LocalDate[]{LocalDate.of(1600, 1, 1), LocalDate.of(1900, 2, 28),
+                LocalDate.of(1900, 3, 1), LocalDate.of(1, 1, 1), LocalDate.of(0, 2, 29), LocalDate.of(-1, 12, 31)}) {
+            assertEquals("Год дня " + day + " должен совпадать с LocalDate.", day.getYear(),
+                    ShipRules.yearOfEpochDay(day.toEpochDay()));
+        }
+        assertEquals("Год миллисекунды до начала эпохи должен совпадать с Calendar.",
+                calendarYear(-1), shipRules.getYear(-1));
+    }
+
+    //test4
+    @Test
+    public void yearOfEpochDayMatchesLocalDate() {
+        long last = LocalDate.of(3200, 12, 31).toEpochDay();
+        for (long day = LocalDate.of(1600, 1, 1).toEpochDay(); day <= last; day++) {
+            int expected = LocalDate.ofEpochDay(day).getYear();
+            if (ShipRules.yearOfEpochDay(day) != expected) {
+                assertEquals("Год дня " + day + " должен совпадать с LocalDate.", expected, ShipRules.yearOfEpochDay(day));
+            }
+        }
+    }
+
+    //test5
+    @Test
+    public void getYearMatchesCalendar() {
+        long last = millis(3020, Calendar.JANUARY, 31, 0, 0, 0, 0);
+        // an odd number of hours reaches every hour of the day, including the ones around midnight
+        for (long instant = millis(2799, Calendar.DECEMBER, 1, 0, 0, 0, 0); instant <= last; instant += 7 * MILLIS_PER_HOUR) {
+            int expected = calendarYear(instant);
+            if (shipRules.getYear(instant) != expected) {
+                assertEquals("Год момента " + instant + " должен совпадать с Calendar.", expected, shipRules.getYear(instant));
+            }
+        }
+    }
+
+    //test6
+    @Test
+    public void rateMatchesGetRating() {
+        double[] speeds = {0.01, 0.5, 0.99, 0.82, 0.13, 0.64};
+        boolean[] used = {false, true, false, true, true, false};
+        int[] years = {2800, 2900, 3019, 2995, 2999, 3011};
+        double[] ratings = new double[speeds.length];
+
+        shipRules.rate(speeds, used, years, ratings, speeds.length - 1);
+
+        for (int i = 0; i < speeds.length - 1; i++) {
+            assertEquals("Рейтинг корабля " + i + " должен совпадать с getRating.",
+                    shipRules.getRating(speeds[i], used[i], years[i]), ratings[i]);
+        }
+        assertEquals("Рейтинг за пределами length не должен вычисляться.", 0.0, ratings[speeds.length - 1]);
+    }
+
+    private static long millis(int year, int month, int day, int hour, int minute, int second, int millisecond) {
+        Calendar calendar = new GregorianCalendar();
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute, second);
+        calendar.set(Calendar.MILLISECOND, millisecond);
+        return calendar.getTimeInMillis();
+    }
+
+    private static int calendarYear(long epochMillis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(epochMillis);
+        return calendar.get(Calendar.YEAR);
+    }
+}
@@ -0,0 +1,149 @@
+package com.space.service.index;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.service.ShipFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Compares the list filtering of {@code getShipsFilteredByAllField} before the memory engine (one
+ * {@code removeIf} pass per parameter over entities) with the fused single-pass filter of
+ * {@link ShipColumnIndex}, sequential and on the fork-join pool. The last column counts the matches
+ * without building ships, i.e. the cost of the scan alone.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.space.service.index.FilterBenchmark [-Dexec.args=<ships>]}.
+ */
+public class FilterBenchmark {
+    private final static int WARMUP_ROUNDS = 5;
+    private final static int MEASURED_ROUNDS = 15;
+    private final static String[] PLANETS = {"Earth", "Mars", "Jupiter", "Saturn", "Neptune", "Venus", "Pluto"};
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Ship> ships = generate(size);
+
+        TrigramIndex noTrigrams = new TrigramIndex(null, false);
+        CategoryIndex noBitmaps = new CategoryIndex(null, false);
+        RangeIndex noRanges = new RangeIndex(null, false);
+        ShipColumnIndex sequential = new ShipColumnIndex(null, noTrigrams, noBitmaps, noRanges, 0, false);
+        ShipColumnIndex parallel = new ShipColumnIndex(null, noTrigrams, noBitmaps, noRanges, 1, false);
+        for (Ship ship : ships) {
+            sequential.shipSaved(ship);
+            parallel.shipSaved(ship);
+        }
+
+        ShipFilter[] filters = {
+                new ShipFilter(null, null, ShipType.MILITARY, null, null, false, 0.5, null, null, 1000, 1.0, null),
+                new ShipFilter(null, "ar", null, null, null, null, 0.1, 0.9, 100, null, null, null),
+                new ShipFilter(null, null, null, null, null, true, null, null, null, null, null, 2.0)
+        };
+
+        System.out.printf("%d ships, %d threads in the common pool%n", size,
+                java.util.concurrent.ForkJoinPool.getCommonPoolParallelism());
+        System.out.printf("%-8s %10s %12s %12s %12s %12s%n", "filter", "matches", "removeIf ms", "fused ms",
+                "parallel ms", "count ms");
+        for (int i = 0; i < filters.length; i++) {
+            ShipFilter filter = filters[i];
+            int matches = removeIf(ships, filter).size();
+            if (matches != sequential.findAll(filter).size() || matches != parallel.findAll(filter).size()) {
+                throw new IllegalStateException("Implementations disagree on filter " + (i + 1));
+            }
+            System.out.printf("%-8d %10d %12.1f %12.1f %12.1f %12.1f%n", i + 1, matches,
+                    measure(() -> removeIf(ships, filter).size()),
+                    measure(() -> sequential.findAll(filter).size()),
+                    measure(() -> parallel.findAll(filter).size()),
+                    measure(() -> sequential.count(filter)));
+        }
+    }
+
+    /**
+     * The filtering as it was done before the query engines: one pass and compaction per parameter.
+     */
+    private static List<Ship> removeIf(List<Ship> ships, ShipFilter filter) {
+        List<Ship> shipList = new ArrayList<>(ships);
+        if (filter.getName() != null) {
+            shipList.removeIf(ship -> !ship.getName().contains(filter.getName()));
+        }
+        if (filter.getPlanet() != null) {
+            shipList.removeIf(ship -> !ship.getPlanet().contains(filter.getPlanet()));
+        }
+        if (filter.getShipType() != null) {
+            shipList.removeIf(ship -> !(ship.getShipType() == filter.getShipType()));
+        }
+        if (filter.getAfter() != null) {
+            shipList.removeIf(ship -> ship.getProdDate().getTime() < filter.getAfter());
+        }
+        if (filter.getBefore() != null) {
+            shipList.removeIf(ship -> ship.getProdDate().getTime() > filter.getBefore());
+        }
+        if (filter.getMinSpeed() != null) {
+            shipList.removeIf(ship -> ship.getSpeed() < filter.getMinSpeed());
+        }
+        if (filter.getMaxSpeed() != null) {
+            shipList.removeIf(ship -> ship.getSpeed() > filter.getMaxSpeed());
+        }
+        if (filter.getUsed() != null) {
+            shipList.removeIf(ship -> ship.getUsed() != filter.getUsed());
+        }
+        if (filter.getMinCrewSize() != null) {
+            shipList.removeIf(ship -> ship.getCrewSize() < filter.getMinCrewSize());
+        }
+        if (filter.getMaxCrewSize() != null) {
+            shipList.removeIf(ship -> ship.getCrewSize() > filter.getMaxCrewSize());
+        }
+        if (filter.getMinRating() != null) {
+            shipList.removeIf(ship -> ship.getRating() < filter.getMinRating());
+        }
+        if (filter.getMaxRating() != null) {
+            shipList.removeIf(ship -> ship.getRating() > filter.getMaxRating());
+        }
+        return shipList;
+    }
+
+    /**
+     * Median time of one call in milliseconds.
+     */
+    private static double measure(LongSupplier query) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += query.getAsLong();
+        }
+        long[] nanos = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink += query.getAsLong();
+            nanos[i] = System.nanoTime() - start;
+        }
+        if (sink < 0) {
+            throw new IllegalStateException();
+        }
+        Arrays.sort(nanos);
+        return nanos[MEASURED_ROUNDS / 2] / 1e6;
+    }
+
+    private static List<Ship> generate(int size) {
+        Random random = new Random(42);
+        ShipType[] shipTypes = ShipType.values();
+        List<Ship> ships = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Ship ship = new Ship();
+            ship.setId((long) i);
+            ship.setName("Ship " + i);
+            ship.setPlanet(PLANETS[random.nextInt(PLANETS.length)]);
+            ship.setShipType(shipTypes[random.nextInt(shipTypes.length)]);
+            ship.setProdDate(new Date(32503680000000L + (long) random.nextInt(19 * 365) * 86_400_000L));
+            ship.setUsed(random.nextBoolean());
+            ship.setSpeed((1 + random.nextInt(99)) / 100.0);
+            ship.setCrewSize(1 + random.nextInt(9999));
+            ship.setRating(random.nextInt(1000) / 100.0);
+            ships.add(ship);
+        }
+        return ships;
+    }
+}
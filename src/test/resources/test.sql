@@ -11,6 +11,7 @@ CREATE TABLE ship
     speed    DOUBLE      NULL,
     crewSize INT(4)      NULL,
     rating   DOUBLE      NULL,
+    version  BIGINT      NOT NULL DEFAULT 0,
     PRIMARY KEY (id)
 );
 
@@ -54,4 +55,24 @@ VALUES ('Orion III', 'Mars', 'MERCHANT', '2995-01-01', true, 0.82, 617, 1.31)
      , ('Nemesis', 'Neptune', 'MILITARY', '2999-01-01', true, 0.13, 1390, 0.25)
      , ('Nostromo', 'Saturn', 'MERCHANT', '2991-01-01', true, 0.31, 1967, 0.43)
      , ('Tardis', 'Jupiter', 'MERCHANT', '3016-01-01', false, 0.86, 4871, 17.20)
-     , ('Star Destroyer', 'Mercury', 'MILITARY', '3017-01-01', false, 0.92, 4880, 24.53);
\ No newline at end of file
+     , ('Star Destroyer', 'Mercury', 'MILITARY', '3017-01-01', false, 0.92, 4880, 24.53);
+
+CREATE TABLE IF NOT EXISTS ship_sequence
+(
+    sequence_name VARCHAR(64) NOT NULL,
+    last_val      BIGINT      NOT NULL,
+    PRIMARY KEY (sequence_name)
+);
+
+ALTER TABLE ship
+    MODIFY id BIGINT(20) NOT NULL;
+
+DELETE FROM ship_sequence;
+
+INSERT INTO ship_sequence (sequence_name, last_val)
+SELECT 'ship', MAX(id)
+FROM ship;
+
+UPDATE rating_job
+SET owner       = NULL,
+    lease_until = 0;